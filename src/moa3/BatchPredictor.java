@@ -0,0 +1,49 @@
+package moa3;
+
+import java.util.Arrays;
+
+import moa.classifiers.AbstractClassifier;
+import weka.core.Instance;
+
+/**
+ * Scores many instances per call into vote buffers owned by the caller, so
+ * the setup of a prediction and the vote arrays are paid once per batch
+ * instead of once per instance. Every slot has numClasses entries; votes a
+ * classifier does not produce are left at zero.
+ */
+public interface BatchPredictor {
+    // Votes for rows [start, end) of the store go to votes[(row - start) * numClasses + c]
+    void getVotesForRows(ColumnStore store, int start, int end, double[] votes, int numClasses);
+
+    // Votes for instances[start, end) go to votes[i - start]
+    void getVotesForInstances(Instance[] instances, int start, int end, double[][] votes);
+
+    // Uses the classifier's own batch path when it has one, otherwise one getVotesForInstance per row
+    static void getVotesForRows(AbstractClassifier classifier, ColumnStore store, int start, int end, double[] votes, int numClasses) {
+        if (classifier instanceof BatchPredictor) {
+            ((BatchPredictor) classifier).getVotesForRows(store, start, end, votes, numClasses);
+            return;
+        }
+        InstanceView instance = store.flyweight();
+        for (int row = start; row < end; row++) {
+            copyVotes(classifier.getVotesForInstance(instance.moveTo(row)), votes, (row - start) * numClasses, numClasses);
+        }
+    }
+
+    static void getVotesForInstances(AbstractClassifier classifier, Instance[] instances, int start, int end, double[][] votes) {
+        if (classifier instanceof BatchPredictor) {
+            ((BatchPredictor) classifier).getVotesForInstances(instances, start, end, votes);
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            double[] slot = votes[i - start];
+            copyVotes(classifier.getVotesForInstance(instances[i]), slot, 0, slot.length);
+        }
+    }
+
+    static void copyVotes(double[] classifierVotes, double[] votes, int offset, int numClasses) {
+        int length = Math.min(classifierVotes.length, numClasses);
+        System.arraycopy(classifierVotes, 0, votes, offset, length);
+        Arrays.fill(votes, offset + length, offset + numClasses, 0);
+    }
+}
@@ -0,0 +1,164 @@
+package moa3;
+
+import weka.core.Attribute;
+
+/**
+ * Confusion matrix and the measures derived from it, updated one prediction
+ * at a time in primitive arrays so it can ride along with an accuracy pass.
+ * Besides accuracy it gives Cohen's kappa, kappa-M (gain over always
+ * predicting the majority class, which matters on imbalanced streams),
+ * per-class precision, recall and F1, and the mean log-loss of the votes.
+ * Rows without a label are counted as misses, like the accuracy loops do,
+ * but stay out of the matrix.
+ */
+public class ClassificationMetrics {
+    private static final double MIN_PROBABILITY = 1e-15;
+
+    private final int numClasses;
+    // Row is the actual class, column the predicted one
+    private final long[] confusion;
+    private long numInstances;
+    private long numLabeled;
+    private long correct;
+    private double logLossSum;
+
+    public ClassificationMetrics(int numClasses) {
+        this.numClasses = numClasses;
+        this.confusion = new long[numClasses * numClasses];
+    }
+
+    public void add(double actualValue, int predicted, double[] votes) {
+        add(actualValue, predicted, votes, 0, votes.length);
+    }
+
+    // Votes are votes[offset .. offset + length), as laid out in a batch vote buffer
+    public void add(double actualValue, int predicted, double[] votes, int offset, int length) {
+        numInstances++;
+        if (Double.isNaN(actualValue)) {
+            return;
+        }
+        int actual = (int) actualValue;
+        numLabeled++;
+        if (predicted == actual) {
+            correct++;
+        }
+        confusion[actual * numClasses + predicted]++;
+
+        double sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += votes[i];
+        }
+        double probability;
+        if (sum > 0) {
+            probability = actual < length ? votes[offset + actual] / sum : 0;
+        } else {
+            probability = 1.0 / numClasses;
+        }
+        logLossSum -= Math.log(Math.max(probability, MIN_PROBABILITY));
+    }
+
+    // Adds the counts of another part of the same evaluation
+    public void merge(ClassificationMetrics other) {
+        for (int i = 0; i < confusion.length; i++) {
+            confusion[i] += other.confusion[i];
+        }
+        numInstances += other.numInstances;
+        numLabeled += other.numLabeled;
+        correct += other.correct;
+        logLossSum += other.logLossSum;
+    }
+
+    public long getNumInstances() {
+        return numInstances;
+    }
+
+    public long getNumCorrect() {
+        return correct;
+    }
+
+    public long getCount(int actual, int predicted) {
+        return confusion[actual * numClasses + predicted];
+    }
+
+    public double getAccuracy() {
+        return (double) correct / numInstances;
+    }
+
+    public double getKappa() {
+        double observed = (double) correct / numLabeled;
+        double chance = 0;
+        for (int c = 0; c < numClasses; c++) {
+            chance += ((double) actualCount(c) / numLabeled) * ((double) predictedCount(c) / numLabeled);
+        }
+        return (observed - chance) / (1 - chance);
+    }
+
+    public double getKappaM() {
+        long majority = 0;
+        for (int c = 0; c < numClasses; c++) {
+            majority = Math.max(majority, actualCount(c));
+        }
+        double observed = (double) correct / numLabeled;
+        double majorityAccuracy = (double) majority / numLabeled;
+        return (observed - majorityAccuracy) / (1 - majorityAccuracy);
+    }
+
+    public double getPrecision(int c) {
+        return (double) getCount(c, c) / predictedCount(c);
+    }
+
+    public double getRecall(int c) {
+        return (double) getCount(c, c) / actualCount(c);
+    }
+
+    public double getF1(int c) {
+        long truePositives = getCount(c, c);
+        return 2.0 * truePositives / (actualCount(c) + predictedCount(c));
+    }
+
+    public double getMacroF1() {
+        double sum = 0;
+        for (int c = 0; c < numClasses; c++) {
+            double f1 = getF1(c);
+            sum += Double.isNaN(f1) ? 0 : f1;
+        }
+        return sum / numClasses;
+    }
+
+    public double getLogLoss() {
+        return logLossSum / numLabeled;
+    }
+
+    private long actualCount(int c) {
+        long count = 0;
+        for (int p = 0; p < numClasses; p++) {
+            count += confusion[c * numClasses + p];
+        }
+        return count;
+    }
+
+    private long predictedCount(int c) {
+        long count = 0;
+        for (int a = 0; a < numClasses; a++) {
+            count += confusion[a * numClasses + c];
+        }
+        return count;
+    }
+
+    public String format(Attribute classAttribute) {
+        StringBuilder out = new StringBuilder();
+        out.append("Confusion matrix (rows actual, columns predicted):\n");
+        for (int a = 0; a < numClasses; a++) {
+            out.append(" ");
+            for (int p = 0; p < numClasses; p++) {
+                out.append(" ").append(getCount(a, p));
+            }
+            out.append("\n");
+        }
+        out.append(String.format("Kappa: %.4f  Kappa-M: %.4f  Log loss: %.4f\n", getKappa(), getKappaM(), getLogLoss()));
+        for (int c = 0; c < numClasses; c++) {
+            out.append(String.format("  %s: precision %.4f  recall %.4f  F1 %.4f\n", classAttribute.value(c), getPrecision(c), getRecall(c), getF1(c)));
+        }
+        return out.toString();
+    }
+}
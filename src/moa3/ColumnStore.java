@@ -0,0 +1,170 @@
+package moa3;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+/**
+ * Column-oriented replacement for a list of DenseInstance objects: one
+ * primitive double[] per attribute and one byte per row for the class label,
+ * so a row of the bundled datasets costs 25 bytes instead of roughly 90.
+ * Rows are handed to MOA as read-only InstanceView objects that only hold the
+ * store and a row number, or through a single flyweight view that is moved
+ * from row to row. Instance weights are not stored; every row has
+ * weight 1, as every row produced by the loaders does.
+ */
+public class ColumnStore implements Iterable<Instance> {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final byte MISSING_LABEL = -1;
+
+    private final Instances dataset;
+    private final int classIndex;
+    private final double[][] columns;
+    private byte[] labels;
+    private int size;
+
+    public ColumnStore(Instances dataset) {
+        this(dataset, DEFAULT_CAPACITY);
+    }
+
+    public ColumnStore(Instances dataset, int initialCapacity) {
+        if (dataset.classIndex() < 0 || !dataset.classAttribute().isNominal()
+                || dataset.classAttribute().numValues() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("ColumnStore needs a nominal class with at most " + Byte.MAX_VALUE + " values");
+        }
+        this.dataset = dataset;
+        this.classIndex = dataset.classIndex();
+        int capacity = Math.max(initialCapacity, 1);
+        this.columns = new double[dataset.numAttributes()][];
+        for (int j = 0; j < columns.length; j++) {
+            if (j != classIndex) {
+                columns[j] = new double[capacity];
+            }
+        }
+        this.labels = new byte[capacity];
+    }
+
+    public void add(Instance instance) {
+        ensureCapacity(size + 1);
+        for (int j = 0; j < columns.length; j++) {
+            if (j != classIndex) {
+                columns[j][size] = instance.value(j);
+            }
+        }
+        labels[size] = instance.classIsMissing() ? MISSING_LABEL : (byte) instance.classValue();
+        size++;
+    }
+
+    // Appends a row laid out like the dataset header
+    public void add(double[] values) {
+        ensureCapacity(size + 1);
+        for (int j = 0; j < columns.length; j++) {
+            if (j != classIndex) {
+                columns[j][size] = values[j];
+            }
+        }
+        labels[size] = Double.isNaN(values[classIndex]) ? MISSING_LABEL : (byte) values[classIndex];
+        size++;
+    }
+
+    // Appends a row of another store with the same header, without going through an Instance
+    public void add(ColumnStore source, int row) {
+        ensureCapacity(size + 1);
+        for (int j = 0; j < columns.length; j++) {
+            if (j != classIndex) {
+                columns[j][size] = source.columns[j][row];
+            }
+        }
+        labels[size] = source.labels[row];
+        size++;
+    }
+
+    public double value(int row, int attribute) {
+        if (attribute == classIndex) {
+            return classValue(row);
+        }
+        return columns[attribute][row];
+    }
+
+    public double classValue(int row) {
+        byte label = labels[row];
+        return label == MISSING_LABEL ? Utils.missingValue() : label;
+    }
+
+    public Instance instance(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        return new InstanceView(this, row);
+    }
+
+    // One view to be moved over the rows with moveTo, so a pass over the store allocates nothing.
+    // The view is only valid until it is moved; whoever keeps a row has to copy it.
+    public InstanceView flyweight() {
+        return new InstanceView(this, 0);
+    }
+
+    public Instances getDataset() {
+        return dataset;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Drops the spare capacity once loading is done
+    public void trimToSize() {
+        for (int j = 0; j < columns.length; j++) {
+            if (j != classIndex) {
+                columns[j] = Arrays.copyOf(columns[j], Math.max(size, 1));
+            }
+        }
+        labels = Arrays.copyOf(labels, Math.max(size, 1));
+    }
+
+    @Override
+    public Iterator<Instance> iterator() {
+        return new Iterator<Instance>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Instance next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return new InstanceView(ColumnStore.this, next++);
+            }
+        };
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= labels.length) {
+            return;
+        }
+        // Grow by half so the copy of a large column does not double the heap for a moment
+        int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(capacity, labels.length + (long) (labels.length >> 1)));
+        for (int j = 0; j < columns.length; j++) {
+            if (j != classIndex) {
+                columns[j] = Arrays.copyOf(columns[j], newCapacity);
+            }
+        }
+        labels = Arrays.copyOf(labels, newCapacity);
+    }
+}
@@ -0,0 +1,139 @@
+package moa3;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Train/test split over the rows of a ColumnStore, kept as a bitset of the
+ * training rows instead of copies of the instances. Both sides are walked in
+ * store order, so stream learners still see the rows in file order. All
+ * random modes take a seed, which makes a split and the benchmark numbers
+ * computed on it repeatable.
+ */
+public class DataSplit {
+    public enum Mode { RANDOM, STRATIFIED, HOLDOUT }
+
+    private final BitSet train;
+    private final int size;
+
+    private DataSplit(BitSet train, int size) {
+        this.train = train;
+        this.size = size;
+    }
+
+    public static DataSplit create(Mode mode, ColumnStore store, double trainRatio, long seed) {
+        switch (mode) {
+            case STRATIFIED:
+                return stratified(store, trainRatio, seed);
+            case HOLDOUT:
+                return holdoutTail(store.size(), trainRatio);
+            default:
+                return random(store.size(), trainRatio, seed);
+        }
+    }
+
+    // Exactly round(size * trainRatio) rows, chosen uniformly
+    public static DataSplit random(int size, double trainRatio, long seed) {
+        BitSet train = new BitSet(size);
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        int numTrain = (int) Math.round(size * trainRatio);
+        shuffle(rows, 0, size, numTrain, new Random(seed));
+        for (int i = 0; i < numTrain; i++) {
+            train.set(rows[i]);
+        }
+        return new DataSplit(train, size);
+    }
+
+    // Same as random, but every class keeps its share of rows on both sides
+    public static DataSplit stratified(ColumnStore store, double trainRatio, long seed) {
+        int size = store.size();
+        int numClasses = store.getDataset().numClasses();
+        int[] classCounts = new int[numClasses + 1];
+        for (int i = 0; i < size; i++) {
+            classCounts[classSlot(store, i, numClasses)]++;
+        }
+        // Group the rows by class with a counting sort, then draw the training rows class by class
+        int[] start = new int[numClasses + 2];
+        for (int c = 0; c <= numClasses; c++) {
+            start[c + 1] = start[c] + classCounts[c];
+        }
+        int[] next = start.clone();
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[next[classSlot(store, i, numClasses)]++] = i;
+        }
+        BitSet train = new BitSet(size);
+        Random random = new Random(seed);
+        for (int c = 0; c <= numClasses; c++) {
+            int numTrain = (int) Math.round(classCounts[c] * trainRatio);
+            shuffle(rows, start[c], classCounts[c], numTrain, random);
+            for (int i = 0; i < numTrain; i++) {
+                train.set(rows[start[c] + i]);
+            }
+        }
+        return new DataSplit(train, size);
+    }
+
+    // Time-ordered split: the first rows train, the tail is held out
+    public static DataSplit holdoutTail(int size, double trainRatio) {
+        BitSet train = new BitSet(size);
+        train.set(0, (int) Math.round(size * trainRatio));
+        return new DataSplit(train, size);
+    }
+
+    // Fold number (0 .. k-1) for every row; fold f is the test side of fold(folds, f)
+    public static byte[] kFoldAssignment(int size, int k, long seed) {
+        if (k < 2 || k > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Number of folds must be between 2 and " + Byte.MAX_VALUE);
+        }
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        shuffle(rows, 0, size, size, new Random(seed));
+        byte[] folds = new byte[size];
+        for (int i = 0; i < size; i++) {
+            folds[rows[i]] = (byte) (i % k);
+        }
+        return folds;
+    }
+
+    public static DataSplit fold(byte[] folds, int testFold) {
+        BitSet train = new BitSet(folds.length);
+        for (int i = 0; i < folds.length; i++) {
+            if (folds[i] != testFold) {
+                train.set(i);
+            }
+        }
+        return new DataSplit(train, folds.length);
+    }
+
+    // Next training row at or after from, or -1
+    public int nextTrainRow(int from) {
+        int row = train.nextSetBit(from);
+        return row < size ? row : -1;
+    }
+
+    public boolean isTrain(int row) {
+        return train.get(row);
+    }
+
+    // Partial Fisher-Yates: afterwards the first count entries of the range are a uniform sample of it
+    private static void shuffle(int[] rows, int offset, int length, int count, Random random) {
+        for (int i = 0; i < count && i < length - 1; i++) {
+            int j = i + random.nextInt(length - i);
+            int swap = rows[offset + i];
+            rows[offset + i] = rows[offset + j];
+            rows[offset + j] = swap;
+        }
+    }
+
+    // Missing labels get their own group after the real classes
+    private static int classSlot(ColumnStore store, int row, int numClasses) {
+        double label = store.classValue(row);
+        return Double.isNaN(label) ? numClasses : (int) label;
+    }
+}
@@ -0,0 +1,228 @@
+package moa3;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Properties;
+
+import weka.core.Attribute;
+import weka.core.FastVector;
+import weka.core.Instances;
+
+/**
+ * Describes one dataset: where the delimited file lives, how it is laid out,
+ * which columns become numeric attributes and how the label column maps to a
+ * class index. Schemas are read from .properties files, either bundled next
+ * to this class or given as a file path:
+ *
+ * <pre>
+ * data.path=E:\\data\\readings.csv
+ * delimiter=;
+ * decimal.separator=,
+ * columns=CO(GT),#4,C6H6(GT)       header names, or #n for a zero-based index
+ * attributes=attr1,attr2,attr3     optional, defaults to the column names
+ * range.attr1=0,100                optional, rows outside [min, max] are rejected
+ * class.column=NOx(GT)
+ * class.attribute=class
+ * class.values=Class0,Class1
+ * class.rule=threshold             threshold, equals or index
+ * class.threshold=150              threshold: value above it is class 1
+ * class.positive=rain              equals: matching field is class 1
+ * relation=Dataset
+ * kafka.topic=readings
+ * kafka.header=...                 optional record layout, defaults to the columns
+ * benchmark.path=...               optional CSV copy of the benchmark table
+ * </pre>
+ */
+public class DatasetSchema {
+    public enum ClassRule { THRESHOLD, EQUALS, INDEX }
+
+    private final String name;
+    private final String relation;
+    private final String dataPath;
+    private final char delimiter;
+    private final char decimalSeparator;
+    private final String[] columns;
+    private final String[] attributes;
+    private final double[] minValues;
+    private final double[] maxValues;
+    private final String classColumn;
+    private final String classAttribute;
+    private final String[] classValues;
+    private final ClassRule classRule;
+    private final double classThreshold;
+    private final String classPositive;
+    private final String kafkaTopic;
+    private final String kafkaHeader;
+    private final String benchmarkPath;
+
+    private DatasetSchema(String name, Properties properties) {
+        this.name = name;
+        this.relation = properties.getProperty("relation", "Dataset");
+        this.dataPath = require(properties, "data.path");
+        this.delimiter = singleChar(properties, "delimiter", ",");
+        this.decimalSeparator = singleChar(properties, "decimal.separator", ".");
+        this.columns = split(require(properties, "columns"));
+        this.attributes = properties.containsKey("attributes") ? split(properties.getProperty("attributes")) : columns;
+        if (attributes.length != columns.length) {
+            throw new IllegalArgumentException(name + ": " + columns.length + " columns but " + attributes.length + " attributes");
+        }
+        this.minValues = new double[columns.length];
+        this.maxValues = new double[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            minValues[i] = Double.NEGATIVE_INFINITY;
+            maxValues[i] = Double.POSITIVE_INFINITY;
+            String range = properties.getProperty("range." + attributes[i]);
+            if (range != null) {
+                String[] bounds = split(range);
+                if (bounds.length != 2) {
+                    throw new IllegalArgumentException(name + ": range." + attributes[i] + " must be min,max");
+                }
+                minValues[i] = Double.parseDouble(bounds[0]);
+                maxValues[i] = Double.parseDouble(bounds[1]);
+            }
+        }
+        this.classColumn = require(properties, "class.column");
+        this.classAttribute = properties.getProperty("class.attribute", "class");
+        this.classValues = split(require(properties, "class.values"));
+        this.classRule = ClassRule.valueOf(require(properties, "class.rule").trim().toUpperCase());
+        this.classThreshold = classRule == ClassRule.THRESHOLD ? Double.parseDouble(require(properties, "class.threshold")) : Double.NaN;
+        this.classPositive = classRule == ClassRule.EQUALS ? require(properties, "class.positive") : null;
+        if (classRule != ClassRule.INDEX && classValues.length != 2) {
+            throw new IllegalArgumentException(name + ": class.rule " + classRule + " needs exactly two class values");
+        }
+        this.kafkaTopic = properties.getProperty("kafka.topic", name);
+        this.kafkaHeader = properties.getProperty("kafka.header");
+        this.benchmarkPath = properties.getProperty("benchmark.path");
+    }
+
+    // Loads a schema bundled with the classes (e.g. "airquality.properties"), or from a file path
+    public static DatasetSchema load(String location) throws IOException {
+        InputStream in = DatasetSchema.class.getResourceAsStream(location);
+        if (in == null) {
+            in = new FileInputStream(location);
+        }
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String fileName = location.substring(Math.max(location.lastIndexOf('/'), location.lastIndexOf('\\')) + 1);
+        String name = fileName.endsWith(".properties") ? fileName.substring(0, fileName.length() - ".properties".length()) : fileName;
+        return new DatasetSchema(name, properties);
+    }
+
+    public Instances createHeader() {
+        ArrayList<Attribute> header = new ArrayList<>();
+        for (String attribute : attributes) {
+            header.add(new Attribute(attribute));
+        }
+        FastVector values = new FastVector(classValues.length);
+        for (String value : classValues) {
+            values.addElement(value);
+        }
+        header.add(new Attribute(classAttribute, values));
+
+        Instances dataset = new Instances(relation, header, 0);
+        dataset.setClassIndex(dataset.numAttributes() - 1);
+        return dataset;
+    }
+
+    // Resolves the column references against the reader's header once, so rows are read by index only
+    public RowExtractor compile(MappedCsvReader reader) {
+        int[] featureColumns = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            featureColumns[i] = resolve(reader, columns[i]);
+        }
+        return new RowExtractor(featureColumns, minValues, maxValues, resolve(reader, classColumn),
+                classRule, classThreshold, classPositive, classValues.length);
+    }
+
+    // Layout of Kafka records, which carry no header row of their own
+    public String getRecordHeader() {
+        if (kafkaHeader != null) {
+            return kafkaHeader;
+        }
+        StringBuilder header = new StringBuilder();
+        for (String column : columns) {
+            header.append(column).append(delimiter);
+        }
+        return header.append(classColumn).toString();
+    }
+
+    // Every setting that decides which rows are kept and which values and labels they get
+    public String getExtractionFingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append("delimiter=").append(delimiter)
+                .append("\ndecimal.separator=").append(decimalSeparator)
+                .append("\ncolumns=").append(String.join(",", columns))
+                .append("\nclass.column=").append(classColumn)
+                .append("\nclass.rule=").append(classRule)
+                .append("\nclass.threshold=").append(classThreshold)
+                .append("\nclass.positive=").append(classPositive)
+                .append("\nclass.values=").append(classValues.length);
+        for (int i = 0; i < columns.length; i++) {
+            fingerprint.append("\nrange.").append(attributes[i]).append('=').append(minValues[i]).append(',').append(maxValues[i]);
+        }
+        return fingerprint.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDataPath() {
+        return dataPath;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public char getDecimalSeparator() {
+        return decimalSeparator;
+    }
+
+    public String getKafkaTopic() {
+        return kafkaTopic;
+    }
+
+    // Null when the benchmark table is not saved
+    public String getBenchmarkPath() {
+        return benchmarkPath;
+    }
+
+    private static int resolve(MappedCsvReader reader, String column) {
+        if (column.startsWith("#")) {
+            return Integer.parseInt(column.substring(1));
+        }
+        return reader.columnIndex(column);
+    }
+
+    private String require(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(name + ": missing " + key);
+        }
+        return value;
+    }
+
+    private char singleChar(Properties properties, String key, String defaultValue) {
+        String value = properties.getProperty(key, defaultValue);
+        if (value.length() != 1) {
+            throw new IllegalArgumentException(name + ": " + key + " must be a single character");
+        }
+        return value.charAt(0);
+    }
+
+    private static String[] split(String list) {
+        String[] parts = list.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,203 @@
+package moa3;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+
+import moa.classifiers.AbstractClassifier;
+import moa.core.Measurement;
+import weka.core.Instance;
+
+/**
+ * Sums the votes of its members. In SHARED mode the members are models that
+ * are trained on their own, and the ensemble only combines them, so they are
+ * not trained a second time. In OWN mode the ensemble works on untrained
+ * copies of the given members and trains those itself, independent of the
+ * originals.
+ */
+public class EnsembleClassifier extends AbstractClassifier implements BatchPredictor, AutoCloseable {
+    public enum MemberMode { SHARED, OWN }
+
+    private static final long serialVersionUID = 1L;
+    private AbstractClassifier[] classifiers;
+    private final MemberMode memberMode;
+    private int numProcessedInstances;
+    // Member vote buffers of the batch methods, per calling thread and grown only when a batch needs more
+    private transient ThreadLocal<BatchBuffers> batchBuffers = ThreadLocal.withInitial(BatchBuffers::new);
+
+    public EnsembleClassifier(AbstractClassifier... classifiers) {
+        this(MemberMode.SHARED, classifiers);
+    }
+
+    public EnsembleClassifier(MemberMode memberMode, AbstractClassifier... classifiers) {
+        this.memberMode = memberMode;
+        this.classifiers = classifiers;
+        if (memberMode == MemberMode.OWN) {
+            this.classifiers = new AbstractClassifier[classifiers.length];
+            for (int i = 0; i < classifiers.length; i++) {
+                this.classifiers[i] = (AbstractClassifier) classifiers[i].copy();
+                this.classifiers[i].resetLearning();
+            }
+        }
+        this.numProcessedInstances = 0;
+    }
+
+    // Shared members belong to their owner, so only owned copies are reset
+    @Override
+    public void resetLearningImpl() {
+        numProcessedInstances = 0;
+        if (memberMode == MemberMode.OWN) {
+            for (AbstractClassifier classifier : classifiers) {
+                classifier.resetLearning();
+            }
+        }
+    }
+
+    @Override
+    public void trainOnInstanceImpl(Instance instance) {
+        numProcessedInstances++;
+        if (memberMode == MemberMode.OWN) {
+            trainMembers(instance);
+        }
+    }
+
+    @Override
+    public double[] getVotesForInstance(Instance instance) {
+        double[] votes = new double[instance.numClasses()];
+        for (double[] classifierVotes : getMemberVotes(instance)) {
+            addVotes(votes, classifierVotes);
+        }
+        return votes;
+    }
+
+    // Members are asked for the whole batch, then summed in the same order as getVotesForInstance
+    @Override
+    public void getVotesForRows(ColumnStore store, int start, int end, double[] votes, int numClasses) {
+        int length = (end - start) * numClasses;
+        Arrays.fill(votes, 0, length, 0);
+        double[][] memberVotes = batchBuffers.get().rowVotes(classifiers.length, length);
+        getMemberVotesForRows(store, start, end, memberVotes, numClasses);
+        for (double[] classifierVotes : memberVotes) {
+            // Buffers may be longer than this batch; only its first length entries were written
+            for (int i = 0; i < length; i++) {
+                votes[i] += classifierVotes[i];
+            }
+        }
+    }
+
+    @Override
+    public void getVotesForInstances(Instance[] instances, int start, int end, double[][] votes) {
+        double[][][] memberVotes = batchBuffers.get().instanceVotes(classifiers.length, votes, end - start);
+        for (int i = 0; i < end - start; i++) {
+            Arrays.fill(votes[i], 0);
+        }
+        getMemberVotesForInstances(instances, start, end, memberVotes);
+        for (double[][] classifierVotes : memberVotes) {
+            for (int i = 0; i < end - start; i++) {
+                addVotes(votes[i], classifierVotes[i]);
+            }
+        }
+    }
+
+    // Waits until every training instance handed to the ensemble has reached its members
+    public void awaitTraining() {
+    }
+
+    // Releases whatever the ensemble holds besides its members
+    @Override
+    public void close() {
+    }
+
+    // The member loops below run on the caller thread; a subclass can spread them over threads
+
+    protected void trainMembers(Instance instance) {
+        for (AbstractClassifier classifier : classifiers) {
+            classifier.trainOnInstance(instance);
+        }
+    }
+
+    protected double[][] getMemberVotes(Instance instance) {
+        double[][] memberVotes = new double[classifiers.length][];
+        for (int m = 0; m < classifiers.length; m++) {
+            memberVotes[m] = classifiers[m].getVotesForInstance(instance);
+        }
+        return memberVotes;
+    }
+
+    protected void getMemberVotesForRows(ColumnStore store, int start, int end, double[][] memberVotes, int numClasses) {
+        for (int m = 0; m < classifiers.length; m++) {
+            BatchPredictor.getVotesForRows(classifiers[m], store, start, end, memberVotes[m], numClasses);
+        }
+    }
+
+    protected void getMemberVotesForInstances(Instance[] instances, int start, int end, double[][][] memberVotes) {
+        for (int m = 0; m < classifiers.length; m++) {
+            BatchPredictor.getVotesForInstances(classifiers[m], instances, start, end, memberVotes[m]);
+        }
+    }
+
+    // Same sum as getVotesForInstance, for callers that already have the member votes
+    public static void addVotes(double[] votes, double[] classifierVotes) {
+        for (int i = 0; i < classifierVotes.length; i++) {
+            votes[i] += classifierVotes[i];
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        batchBuffers = ThreadLocal.withInitial(BatchBuffers::new);
+    }
+
+    public AbstractClassifier[] getMembers() {
+        return classifiers;
+    }
+
+    @Override
+    protected Measurement[] getModelMeasurementsImpl() {
+        return null;
+    }
+
+    @Override
+    public void getModelDescription(StringBuilder out, int indent) {
+    }
+
+    @Override
+    public boolean isRandomizable() {
+        return true;
+    }
+
+    public MemberMode getMemberMode() {
+        return memberMode;
+    }
+
+    public int getNumProcessedInstances() {
+        return numProcessedInstances;
+    }
+
+    private static class BatchBuffers {
+        private double[][] rowVotes = new double[0][];
+        private double[][][] instanceVotes = new double[0][][];
+
+        double[][] rowVotes(int numMembers, int length) {
+            if (rowVotes.length != numMembers || numMembers > 0 && rowVotes[0].length < length) {
+                rowVotes = new double[numMembers][length];
+            }
+            return rowVotes;
+        }
+
+        // One slot per member and row, as long as the caller's row; the first count rows are used
+        double[][][] instanceVotes(int numMembers, double[][] votes, int count) {
+            if (instanceVotes.length != numMembers || numMembers > 0 && instanceVotes[0].length < count) {
+                instanceVotes = new double[numMembers][count][];
+            }
+            for (double[][] memberVotes : instanceVotes) {
+                for (int i = 0; i < count; i++) {
+                    if (memberVotes[i] == null || memberVotes[i].length != votes[i].length) {
+                        memberVotes[i] = new double[votes[i].length];
+                    }
+                }
+            }
+            return instanceVotes;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package moa3;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import moa.classifiers.AbstractClassifier;
+
+/**
+ * Remembers the train/test metrics of each classifier together with the
+ * model version they were computed at. Classifiers are told apart by
+ * identity, and the version goes up whenever a model is trained or reset, so
+ * looking at an unchanged model again costs nothing and only retrained models
+ * are evaluated again.
+ */
+public class EvaluationCache {
+    private final Map<AbstractClassifier, Entry> entries = new IdentityHashMap<>();
+
+    // Call after a classifier was trained or reset
+    public void modelChanged(AbstractClassifier classifier) {
+        Entry entry = entries.get(classifier);
+        if (entry == null) {
+            entries.put(classifier, new Entry());
+        } else {
+            entry.version++;
+            entry.metrics = null;
+        }
+    }
+
+    public boolean isCurrent(AbstractClassifier classifier) {
+        Entry entry = entries.get(classifier);
+        return entry != null && entry.metrics != null && entry.evaluatedVersion == entry.version;
+    }
+
+    // The cached {training, test} metrics, or null when the model changed since they were computed
+    public ClassificationMetrics[] getMetrics(AbstractClassifier classifier) {
+        return isCurrent(classifier) ? entries.get(classifier).metrics : null;
+    }
+
+    public void putMetrics(AbstractClassifier classifier, ClassificationMetrics[] metrics) {
+        Entry entry = entries.get(classifier);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(classifier, entry);
+        }
+        entry.metrics = metrics;
+        entry.evaluatedVersion = entry.version;
+    }
+
+    // Drops classifiers that were replaced, so their models can be collected
+    public void retainOnly(AbstractClassifier... classifiers) {
+        Map<AbstractClassifier, Entry> kept = new IdentityHashMap<>();
+        for (AbstractClassifier classifier : classifiers) {
+            Entry entry = entries.get(classifier);
+            if (entry != null) {
+                kept.put(classifier, entry);
+            }
+        }
+        entries.clear();
+        entries.putAll(kept);
+    }
+
+    private static class Entry {
+        long version;
+        long evaluatedVersion = -1;
+        ClassificationMetrics[] metrics;
+    }
+}
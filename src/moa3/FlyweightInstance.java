@@ -0,0 +1,38 @@
+package moa3;
+
+import weka.core.Instances;
+
+/**
+ * Read-only Instance over a caller-owned double[] laid out like the dataset
+ * header. The parsers fill the same buffer for every row and pass this one
+ * object on, so reading a row allocates nothing; whoever keeps a row has to
+ * copy it (ColumnStore.add and Instances.add both do).
+ */
+public class FlyweightInstance extends ReadOnlyInstance {
+    private final Instances dataset;
+    private final double[] values;
+
+    public FlyweightInstance(Instances dataset) {
+        this(dataset, new double[dataset.numAttributes()]);
+    }
+
+    public FlyweightInstance(Instances dataset, double[] values) {
+        this.dataset = dataset;
+        this.values = values;
+    }
+
+    // The buffer the next row is written into
+    public double[] getValues() {
+        return values;
+    }
+
+    @Override
+    public double value(int attIndex) {
+        return values[attIndex];
+    }
+
+    @Override
+    public Instances dataset() {
+        return dataset;
+    }
+}
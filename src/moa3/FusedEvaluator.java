@@ -0,0 +1,113 @@
+package moa3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import moa.classifiers.AbstractClassifier;
+
+/**
+ * Scores several classifiers in one walk over the rows. Every base model is
+ * asked for its votes once per row, and an ensemble's vote is summed from
+ * the vote arrays of its members instead of asking them again, in the same
+ * member order as EnsembleClassifier.getVotesForInstance, so predictions and
+ * counts are the same as evaluating each classifier on its own.
+ */
+public class FusedEvaluator {
+    private static final int BLOCK_SIZE = 256;
+
+    private final AbstractClassifier[] classifiers;
+    private final AbstractClassifier[] baseModels;
+    // Per classifier: its index in baseModels, or -1 for an ensemble
+    private final int[] baseIndex;
+    // Per ensemble: the indices of its members in baseModels
+    private final int[][] memberIndex;
+
+    public FusedEvaluator(AbstractClassifier... classifiers) {
+        this.classifiers = classifiers;
+        this.baseIndex = new int[classifiers.length];
+        this.memberIndex = new int[classifiers.length][];
+        List<AbstractClassifier> base = new ArrayList<>();
+        for (int c = 0; c < classifiers.length; c++) {
+            if (classifiers[c] instanceof EnsembleClassifier) {
+                baseIndex[c] = -1;
+            } else {
+                baseIndex[c] = indexOf(base, classifiers[c]);
+            }
+        }
+        for (int c = 0; c < classifiers.length; c++) {
+            if (baseIndex[c] < 0) {
+                AbstractClassifier[] members = ((EnsembleClassifier) classifiers[c]).getMembers();
+                memberIndex[c] = new int[members.length];
+                for (int m = 0; m < members.length; m++) {
+                    memberIndex[c][m] = indexOf(base, members[m]);
+                }
+            }
+        }
+        this.baseModels = base.toArray(new AbstractClassifier[0]);
+    }
+
+    // {training, test} metrics for each classifier, in constructor order
+    public ClassificationMetrics[][] evaluate(ColumnStore store, DataSplit split, boolean parallel) {
+        return parallel ? ParallelEvaluator.measure(this, store, split) : measure(store, 0, store.size(), split);
+    }
+
+    // {training, test} metrics per classifier over rows [start, end)
+    public ClassificationMetrics[][] measure(ColumnStore store, int start, int end, DataSplit split) {
+        int numClasses = store.getDataset().numClasses();
+        ClassificationMetrics[][] metrics = new ClassificationMetrics[classifiers.length][2];
+        for (int c = 0; c < classifiers.length; c++) {
+            metrics[c][0] = new ClassificationMetrics(numClasses);
+            metrics[c][1] = new ClassificationMetrics(numClasses);
+        }
+        // Base models score a block of rows at a time into flat buffers reused for the whole range
+        double[][] baseVotes = new double[baseModels.length][BLOCK_SIZE * numClasses];
+        double[] ensembleVotes = new double[numClasses];
+        for (int blockStart = start; blockStart < end; blockStart += BLOCK_SIZE) {
+            int blockEnd = Math.min(end, blockStart + BLOCK_SIZE);
+            for (int b = 0; b < baseModels.length; b++) {
+                BatchPredictor.getVotesForRows(baseModels[b], store, blockStart, blockEnd, baseVotes[b], numClasses);
+            }
+            for (int row = blockStart; row < blockEnd; row++) {
+                int offset = (row - blockStart) * numClasses;
+                double actual = store.classValue(row);
+                int side = split.isTrain(row) ? 0 : 1;
+                for (int c = 0; c < classifiers.length; c++) {
+                    if (baseIndex[c] >= 0) {
+                        double[] votes = baseVotes[baseIndex[c]];
+                        metrics[c][side].add(actual, maxIndex(votes, offset, numClasses), votes, offset, numClasses);
+                    } else {
+                        Arrays.fill(ensembleVotes, 0);
+                        for (int m : memberIndex[c]) {
+                            for (int i = 0; i < numClasses; i++) {
+                                ensembleVotes[i] += baseVotes[m][offset + i];
+                            }
+                        }
+                        metrics[c][side].add(actual, maxIndex(ensembleVotes, 0, numClasses), ensembleVotes);
+                    }
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private static int indexOf(List<AbstractClassifier> base, AbstractClassifier classifier) {
+        for (int i = 0; i < base.size(); i++) {
+            if (base.get(i) == classifier) {
+                return i;
+            }
+        }
+        base.add(classifier);
+        return base.size() - 1;
+    }
+
+    private static int maxIndex(double[] votes, int offset, int length) {
+        int maxIdx = 0;
+        for (int i = 1; i < length; i++) {
+            if (votes[offset + i] > votes[offset + maxIdx]) {
+                maxIdx = i;
+            }
+        }
+        return maxIdx;
+    }
+}
@@ -0,0 +1,63 @@
+package moa3;
+
+public class HoeffdingTreeParameters {
+    private double splitConfidence;
+    private int gracePeriod;
+    private int minNumInstancesPerLeaf;
+    private int maxDepth;
+    private double nbThreshold;
+
+    // Constructor cập nhật
+    public HoeffdingTreeParameters(double splitConfidence, int gracePeriod, int minNumInstancesPerLeaf, int maxDepth, double nbThreshold) {
+        this.splitConfidence = splitConfidence;
+        this.gracePeriod = gracePeriod;
+        this.minNumInstancesPerLeaf = minNumInstancesPerLeaf;
+        this.maxDepth = maxDepth;
+        this.nbThreshold = nbThreshold;
+    }
+
+    // Getter và setter cho splitConfidence
+    public double getSplitConfidence() {
+        return splitConfidence;
+    }
+
+    public void setSplitConfidence(double splitConfidence) {
+        this.splitConfidence = splitConfidence;
+    }
+
+    // Getter và setter cho gracePeriod
+    public int getGracePeriod() {
+        return gracePeriod;
+    }
+
+    public void setGracePeriod(int gracePeriod) {
+        this.gracePeriod = gracePeriod;
+    }
+
+    // Getter và setter cho minNumInstancesPerLeaf
+    public int getMinNumInstancesPerLeaf() {
+        return minNumInstancesPerLeaf;
+    }
+
+    public void setMinNumInstancesPerLeaf(int minNumInstancesPerLeaf) {
+        this.minNumInstancesPerLeaf = minNumInstancesPerLeaf;
+    }
+
+    // Getter và setter cho maxDepth
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    // Getter và setter cho nbThreshold
+    public double getNbThreshold() {
+        return nbThreshold;
+    }
+
+    public void setNbThreshold(double nbThreshold) {
+        this.nbThreshold = nbThreshold;
+    }
+}
@@ -0,0 +1,203 @@
+package moa3;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Binary copy of the parsed instances, stored next to the CSV file so that a
+ * restart can skip parsing. The file holds the attribute schema, the size
+ * and modification time of the CSV it was built from and the fingerprint of
+ * the schema settings that extracted the rows, followed by one packed
+ * column per attribute (doubles for numeric attributes, one byte per value for
+ * nominal ones). The reject counts of the original parse are kept in the
+ * header. Columns are read back through memory mappings.
+ */
+public class InstanceCache {
+    private static final int MAGIC = 0x4D4F4143;
+    private static final int VERSION = 3;
+    private static final String SUFFIX = ".cache";
+    private static final int MISSING_NOMINAL = 0xFF;
+
+    // fingerprint describes how rows were extracted (DatasetSchema.getExtractionFingerprint); a cache built otherwise is ignored.
+    // Returns false, without handing any row to the sink, when the cache cannot be used, so the caller parses the CSV instead.
+    public static boolean load(String csvPath, String fingerprint, Instances dataset, Consumer<Instance> sink, RejectCounters rejects) {
+        Path cachePath = Paths.get(csvPath + SUFFIX);
+        Path sourcePath = Paths.get(csvPath);
+        if (!Files.isRegularFile(cachePath) || !Files.isRegularFile(sourcePath)) {
+            return false;
+        }
+        try {
+            return read(cachePath, sourcePath, fingerprint, dataset, sink, rejects);
+        } catch (IOException e) {
+            // A truncated or unreadable cache is treated as missing; the parse that follows rewrites it
+            return false;
+        }
+    }
+
+    private static boolean read(Path cachePath, Path sourcePath, String fingerprint, Instances dataset, Consumer<Instance> sink,
+                                RejectCounters rejects) throws IOException {
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            int headerLength = in.readInt();
+            if (in.readLong() != Files.size(sourcePath)
+                    || in.readLong() != Files.getLastModifiedTime(sourcePath).toMillis()
+                    || !in.readUTF().equals(fingerprint)
+                    || !schemaMatches(in, dataset)) {
+                return false;
+            }
+            int numRows = in.readInt();
+            long[] rejected = new long[RejectCounters.NUM_REASONS];
+            for (int reason = 0; reason < rejected.length; reason++) {
+                rejected[reason] = in.readLong();
+            }
+
+            int numAttributes = dataset.numAttributes();
+            long end = headerLength;
+            for (int j = 0; j < numAttributes; j++) {
+                end += (long) numRows * columnWidth(dataset.attribute(j));
+            }
+            // Checked before the first row goes out, so a cache cut short is never half loaded
+            if (headerLength < 0 || numRows < 0 || end > channel.size()) {
+                return false;
+            }
+            DoubleBuffer[] numericColumns = new DoubleBuffer[numAttributes];
+            ByteBuffer[] nominalColumns = new ByteBuffer[numAttributes];
+            long offset = headerLength;
+            for (int j = 0; j < numAttributes; j++) {
+                long length = (long) numRows * columnWidth(dataset.attribute(j));
+                ByteBuffer column = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                if (dataset.attribute(j).isNominal()) {
+                    nominalColumns[j] = column;
+                } else {
+                    numericColumns[j] = column.asDoubleBuffer();
+                }
+                offset += length;
+            }
+            for (int reason = 0; reason < rejected.length; reason++) {
+                rejects.reject(reason, rejected[reason]);
+            }
+
+            // One flyweight is refilled for every row, the sink copies what it keeps
+            FlyweightInstance instance = new FlyweightInstance(dataset);
+            double[] values = instance.getValues();
+            for (int i = 0; i < numRows; i++) {
+                for (int j = 0; j < numAttributes; j++) {
+                    if (nominalColumns[j] != null) {
+                        int value = nominalColumns[j].get(i) & 0xFF;
+                        values[j] = value == MISSING_NOMINAL ? Double.NaN : value;
+                    } else {
+                        values[j] = numericColumns[j].get(i);
+                    }
+                }
+                rejects.accept();
+                sink.accept(instance);
+            }
+        }
+        return true;
+    }
+
+    public static void write(String csvPath, String fingerprint, ColumnStore instances, RejectCounters rejects) throws IOException {
+        Instances dataset = instances.getDataset();
+        for (int j = 0; j < dataset.numAttributes(); j++) {
+            if (dataset.attribute(j).isNominal() && dataset.attribute(j).numValues() >= MISSING_NOMINAL) {
+                return;
+            }
+        }
+        Path sourcePath = Paths.get(csvPath);
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeLong(Files.size(sourcePath));
+        header.writeLong(Files.getLastModifiedTime(sourcePath).toMillis());
+        header.writeUTF(fingerprint);
+        header.writeInt(dataset.numAttributes());
+        header.writeInt(dataset.classIndex());
+        for (int j = 0; j < dataset.numAttributes(); j++) {
+            Attribute attribute = dataset.attribute(j);
+            header.writeUTF(attribute.name());
+            header.writeBoolean(attribute.isNominal());
+            if (attribute.isNominal()) {
+                header.writeInt(attribute.numValues());
+                for (int v = 0; v < attribute.numValues(); v++) {
+                    header.writeUTF(attribute.value(v));
+                }
+            }
+        }
+        header.writeInt(instances.size());
+        for (int reason = 0; reason < RejectCounters.NUM_REASONS; reason++) {
+            header.writeLong(rejects.getRejected(reason));
+        }
+        // Keep the columns 8-byte aligned
+        int headerLength = 12 + headerBytes.size();
+        int padding = (8 - headerLength % 8) % 8;
+
+        Path cachePath = Paths.get(csvPath + SUFFIX);
+        Path tempPath = Paths.get(csvPath + SUFFIX + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempPath.toFile()), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(headerLength + padding);
+            headerBytes.writeTo(out);
+            out.write(new byte[padding]);
+            for (int j = 0; j < dataset.numAttributes(); j++) {
+                boolean nominal = dataset.attribute(j).isNominal();
+                for (int i = 0; i < instances.size(); i++) {
+                    double value = instances.value(i, j);
+                    if (nominal) {
+                        out.writeByte(Double.isNaN(value) ? MISSING_NOMINAL : (int) value);
+                    } else {
+                        out.writeDouble(value);
+                    }
+                }
+            }
+        }
+        Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static boolean schemaMatches(DataInputStream in, Instances dataset) throws IOException {
+        if (in.readInt() != dataset.numAttributes() || in.readInt() != dataset.classIndex()) {
+            return false;
+        }
+        for (int j = 0; j < dataset.numAttributes(); j++) {
+            Attribute attribute = dataset.attribute(j);
+            if (!in.readUTF().equals(attribute.name()) || in.readBoolean() != attribute.isNominal()) {
+                return false;
+            }
+            if (attribute.isNominal()) {
+                if (in.readInt() != attribute.numValues()) {
+                    return false;
+                }
+                for (int v = 0; v < attribute.numValues(); v++) {
+                    if (!in.readUTF().equals(attribute.value(v))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int columnWidth(Attribute attribute) {
+        return attribute.isNominal() ? 1 : 8;
+    }
+}
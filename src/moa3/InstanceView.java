@@ -0,0 +1,39 @@
+package moa3;
+
+import weka.core.Instances;
+
+/**
+ * Read-only Instance backed by one row of a ColumnStore. Values are read from
+ * the store's columns on every call, so a view costs an object header, a
+ * reference and an int. A view can be moved to another row, which lets a
+ * single view serve as a flyweight for a whole pass over the store.
+ */
+public class InstanceView extends ReadOnlyInstance {
+    private final ColumnStore store;
+    private int row;
+
+    InstanceView(ColumnStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+
+    public InstanceView moveTo(int row) {
+        this.row = row;
+        return this;
+    }
+
+    @Override
+    public double value(int attIndex) {
+        return store.value(row, attIndex);
+    }
+
+    @Override
+    public double classValue() {
+        return store.classValue(row);
+    }
+
+    @Override
+    public Instances dataset() {
+        return store.getDataset();
+    }
+}
@@ -0,0 +1,419 @@
+package moa3;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Fixed-capacity window of training rows for StreamKNN, kept in a circular
+ * primitive buffer: one row of feature values per slot plus its label. Adding
+ * to a full sliding window overwrites the oldest row in O(1), so memory and
+ * the cost of a search stay bounded by the capacity however long the stream
+ * runs. A reservoir window instead has rows overwritten in place with set().
+ *
+ * The window doubles as the search index. Feature ranges are kept up to date
+ * as rows enter and leave: monotonic deques give the exact min and max of a
+ * sliding window, a reservoir rescans a feature only when the row leaving
+ * held its extreme, and Z_SCORE keeps a running mean and variance instead.
+ * Rows are stored unscaled and scaled inside the distance, so a change of
+ * scale costs O(features) and a query only touches the rows it compares: all
+ * of them with LINEAR, or with KD_TREE those a walk of a KdTreeIndex reaches,
+ * which are enough to find the same neighbours. With MIN_MAX the neighbours
+ * are exactly those of MOA's LinearNNSearch with EuclideanDistance, ties with
+ * the k-th included.
+ */
+public class InstanceWindow implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Scaling {
+        // (x - min) / (max - min) over the window, as weka's EuclideanDistance normalises
+        MIN_MAX,
+        // (x - mean) / standard deviation over the window; missing values count as the mean
+        Z_SCORE
+    }
+
+    public enum Index {
+        // Every query scans all rows
+        LINEAR,
+        // Queries walk a KD-tree maintained as rows enter and leave
+        KD_TREE
+    }
+
+    private final Instances header;
+    private final int capacity;
+    private final boolean sliding;
+    private final Scaling scaling;
+    // Attribute index of every feature, the class attribute left out
+    private final int[] featureIndex;
+    private final int numFeatures;
+    private final double[] values;
+    private final int[] labels;
+    private final KdTreeIndex tree;
+    private int oldest;
+    private int size;
+    private long numAdded;
+
+    // MIN_MAX: per feature over the rows in the window; min stays NaN while a feature has no value
+    private final double[] min;
+    private final double[] max;
+    private final ExtremeDeque[] minDeques;
+    private final ExtremeDeque[] maxDeques;
+    // Z_SCORE: running count, mean and sum of squared deviations of the present values
+    private final int[] count;
+    private final double[] mean;
+    private final double[] squares;
+
+    // The current scaling: x scales to (x - offset) / scale, or to 0 when scale is NaN because the feature has no spread
+    private final double[] offset;
+    private final double[] scale;
+    private transient ThreadLocal<NeighbourSearch> searches;
+
+    public InstanceWindow(Instances header, int capacity, boolean sliding, Scaling scaling, Index index) {
+        this.header = header;
+        this.capacity = capacity;
+        this.sliding = sliding;
+        this.scaling = scaling;
+        int classIndex = header.classIndex();
+        this.numFeatures = classIndex >= 0 ? header.numAttributes() - 1 : header.numAttributes();
+        this.featureIndex = new int[numFeatures];
+        for (int att = 0, f = 0; att < header.numAttributes(); att++) {
+            if (att != classIndex) {
+                featureIndex[f++] = att;
+            }
+        }
+        this.values = new double[capacity * numFeatures];
+        this.labels = new int[capacity];
+        this.tree = index == Index.KD_TREE ? new KdTreeIndex(values, numFeatures, capacity) : null;
+        this.min = new double[numFeatures];
+        this.max = new double[numFeatures];
+        Arrays.fill(min, Double.NaN);
+        Arrays.fill(max, Double.NaN);
+        boolean deques = sliding && scaling == Scaling.MIN_MAX;
+        this.minDeques = deques ? new ExtremeDeque[numFeatures] : null;
+        this.maxDeques = deques ? new ExtremeDeque[numFeatures] : null;
+        for (int f = 0; deques && f < numFeatures; f++) {
+            minDeques[f] = new ExtremeDeque(capacity, false);
+            maxDeques[f] = new ExtremeDeque(capacity, true);
+        }
+        this.count = new int[numFeatures];
+        this.mean = new double[numFeatures];
+        this.squares = new double[numFeatures];
+        this.offset = new double[numFeatures];
+        this.scale = new double[numFeatures];
+        this.searches = newSearches();
+    }
+
+    // Appends the row; a full sliding window evicts its oldest row, a full reservoir ignores it
+    public void add(Instance instance) {
+        if (size < capacity) {
+            write((oldest + size) % capacity, instance, false);
+            size++;
+        } else if (sliding && capacity > 0) {
+            int slot = oldest;
+            oldest = (oldest + 1) % capacity;
+            write(slot, instance, true);
+        }
+    }
+
+    // Overwrites the row at position (0 is the oldest) in place
+    public void set(int position, Instance instance) {
+        if (sliding) {
+            throw new IllegalStateException("A sliding window only replaces its oldest row");
+        }
+        write(slot(position), instance, true);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public Scaling getScaling() {
+        return scaling;
+    }
+
+    public Index getIndex() {
+        return tree != null ? Index.KD_TREE : Index.LINEAR;
+    }
+
+    public Instances getHeader() {
+        return header;
+    }
+
+    // Adds one vote per neighbour of target to votes[offset + label]: the k nearest rows and all rows at the same distance as the k-th
+    public void addNeighbourVotes(Instance target, int k, double[] votes, int offset) {
+        if (size == 0 || k <= 0) {
+            return;
+        }
+        NeighbourSearch search = searches.get();
+        double[] query = search.getQuery();
+        for (int f = 0; f < numFeatures; f++) {
+            query[f] = target.value(featureIndex[f]);
+        }
+        ((ScaledMetric) search.getMetric()).scaleQuery(query);
+        search.start(Math.min(k, size));
+        if (tree != null) {
+            tree.search(search);
+        } else {
+            for (int slot = 0; slot < size; slot++) {
+                search.offer(slot);
+            }
+        }
+        double cutOff = search.getCutOff();
+        for (int i = 0; i < search.getNumVisited(); i++) {
+            if (search.getVisitedDistance(i) <= cutOff) {
+                votes[offset + labels[search.getVisited(i)]]++;
+            }
+        }
+    }
+
+    // The calling thread's search as its last query left it
+    NeighbourSearch getSearch() {
+        return searches.get();
+    }
+
+    private void write(int slot, Instance instance, boolean replacing) {
+        int base = slot * numFeatures;
+        for (int f = 0; f < numFeatures; f++) {
+            double old = values[base + f];
+            double value = instance.value(featureIndex[f]);
+            values[base + f] = value;
+            if (scaling == Scaling.Z_SCORE) {
+                if (replacing) {
+                    removeMoment(f, old);
+                }
+                addMoment(f, value);
+            } else {
+                updateRange(f, old, value, replacing);
+            }
+            updateScale(f);
+        }
+        labels[slot] = (int) instance.classValue();
+        if (tree != null) {
+            if (replacing) {
+                tree.remove(slot);
+            }
+            tree.insert(slot);
+        }
+        if (sliding) {
+            numAdded++;
+        }
+    }
+
+    private void updateRange(int f, double old, double value, boolean replacing) {
+        if (minDeques != null) {
+            // The row leaving is the oldest, so it can only sit at the front of a deque
+            if (replacing) {
+                minDeques[f].evict(numAdded - capacity);
+                maxDeques[f].evict(numAdded - capacity);
+            }
+            if (!Double.isNaN(value)) {
+                minDeques[f].push(numAdded, value);
+                maxDeques[f].push(numAdded, value);
+            }
+            min[f] = minDeques[f].extreme();
+            max[f] = maxDeques[f].extreme();
+        } else if (replacing && (old == min[f] || old == max[f]) && old != value) {
+            // The row leaving held an extreme, which only a rescan can replace
+            rescan(f);
+        } else {
+            include(f, value);
+        }
+    }
+
+    private void include(int f, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (Double.isNaN(min[f])) {
+            min[f] = value;
+            max[f] = value;
+        } else if (value < min[f]) {
+            min[f] = value;
+        } else if (value > max[f]) {
+            max[f] = value;
+        }
+    }
+
+    private void rescan(int f) {
+        min[f] = Double.NaN;
+        max[f] = Double.NaN;
+        for (int slot = 0; slot < size; slot++) {
+            include(f, values[slot * numFeatures + f]);
+        }
+    }
+
+    // Welford's update, and its inverse for a value leaving the window
+    private void addMoment(int f, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count[f]++;
+        double delta = value - mean[f];
+        mean[f] += delta / count[f];
+        squares[f] += delta * (value - mean[f]);
+    }
+
+    private void removeMoment(int f, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count[f]--;
+        if (count[f] == 0) {
+            mean[f] = 0;
+            squares[f] = 0;
+            return;
+        }
+        double delta = value - mean[f];
+        mean[f] -= delta / count[f];
+        squares[f] -= delta * (value - mean[f]);
+    }
+
+    private void updateScale(int f) {
+        double spread;
+        if (scaling == Scaling.Z_SCORE) {
+            offset[f] = mean[f];
+            spread = count[f] > 0 ? Math.sqrt(squares[f] / count[f]) : 0;
+        } else {
+            offset[f] = min[f];
+            spread = max[f] - min[f];
+        }
+        scale[f] = spread > 0 ? spread : Double.NaN;
+    }
+
+    // NormalizableDistance.norm: a feature without spread scales to 0
+    private double scaledValue(int f, double value) {
+        if (Double.isNaN(value)) {
+            return scaling == Scaling.Z_SCORE ? 0 : value;
+        }
+        return Double.isNaN(scale[f]) ? 0 : (value - offset[f]) / scale[f];
+    }
+
+    private int slot(int position) {
+        return (oldest + position) % capacity;
+    }
+
+    // NormalizableDistance.difference when a numeric value is missing
+    private static double missingDifference(double first, double second) {
+        if (Double.isNaN(first) && Double.isNaN(second)) {
+            return 1;
+        }
+        double diff = Double.isNaN(second) ? first : second;
+        return diff < 0.5 ? 1.0 - diff : diff;
+    }
+
+    private ThreadLocal<NeighbourSearch> newSearches() {
+        return ThreadLocal.withInitial(() -> new NeighbourSearch(numFeatures, capacity, new ScaledMetric()));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        searches = newSearches();
+    }
+
+    /**
+     * Candidates for the min (or max) of a sliding window in arrival order.
+     * A value is dropped once a later value is at least as extreme, so the
+     * front is always the extreme of the rows still in the window.
+     */
+    private static class ExtremeDeque implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] sequence;
+        private final double[] value;
+        private final boolean max;
+        private int head;
+        private int size;
+
+        ExtremeDeque(int capacity, boolean max) {
+            this.sequence = new long[capacity];
+            this.value = new double[capacity];
+            this.max = max;
+        }
+
+        void push(long seq, double v) {
+            while (size > 0) {
+                double last = value[index(size - 1)];
+                if (max ? last > v : last < v) {
+                    break;
+                }
+                size--;
+            }
+            int i = index(size++);
+            sequence[i] = seq;
+            value[i] = v;
+        }
+
+        void evict(long seq) {
+            if (size > 0 && sequence[head] == seq) {
+                head = (head + 1) % sequence.length;
+                size--;
+            }
+        }
+
+        double extreme() {
+            return size > 0 ? value[head] : Double.NaN;
+        }
+
+        private int index(int i) {
+            return (head + i) % sequence.length;
+        }
+    }
+
+    // Distances over the rows, scaled as they are read, for one thread's queries
+    private class ScaledMetric implements NeighbourSearch.Metric {
+        private final double[] query = new double[numFeatures];
+        // Z_SCORE scales a missing value to 0, so the scaled query cannot tell
+        private final boolean[] missing = new boolean[numFeatures];
+
+        void scaleQuery(double[] values) {
+            for (int f = 0; f < numFeatures; f++) {
+                query[f] = scaledValue(f, values[f]);
+                missing[f] = Double.isNaN(values[f]);
+            }
+        }
+
+        // Squared Euclidean distance, summed in attribute order like NormalizableDistance
+        @Override
+        public double distance(int slot) {
+            int base = slot * numFeatures;
+            double distance = 0;
+            for (int f = 0; f < numFeatures; f++) {
+                double first = query[f];
+                double value = values[base + f];
+                // NaN when the value is missing or the feature has no spread, which difference() sorts out
+                double second = (value - offset[f]) / scale[f];
+                double diff = first == first && second == second ? first - second : difference(first, f, value);
+                distance += diff * diff;
+            }
+            return distance;
+        }
+
+        private double difference(double first, int f, double value) {
+            double second = scaledValue(f, value);
+            return first == first && second == second ? first - second : missingDifference(first, second);
+        }
+
+        // Scaling is monotonic and so is every step of distance(), so no row across value can come closer.
+        // A missing query value is on neither side of value, whatever it scales to.
+        @Override
+        public double bound(int feature, double value) {
+            if (missing[feature]) {
+                return 0;
+            }
+            double diff = query[feature] - scaledValue(feature, value);
+            return diff * diff;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package moa3;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import weka.core.Instance;
+
+/**
+ * Polls delimited rows from a Kafka topic in batches, decodes them into
+ * instances of the existing dataset header and hands them to a sink (usually
+ * a TrainTestRouter). Offsets are committed only after a whole batch has been
+ * trained, so a crash replays records instead of losing them.
+ *
+ * A batch is decoded and trained while holding the lock given to the
+ * constructor, so a reader holding the same lock sees the models, the
+ * evaluator and the reject counters between two whole batches.
+ *
+ * The consumer is passed in already subscribed or assigned, which lets a
+ * MockConsumer stand in for a broker. A consumer created to replay the topic
+ * starts every partition at its first offset instead of the committed one,
+ * for models that were reset and have to see the whole history again.
+ */
+public class KafkaInstanceSource implements Runnable {
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    public interface RecordDecoder {
+        // Returns null when the record has to be skipped. The instance may be reused for the next record.
+        Instance decode(byte[] value);
+    }
+
+    private final Consumer<byte[], byte[]> consumer;
+    private final RecordDecoder decoder;
+    private final java.util.function.Consumer<Instance> sink;
+    private final Object lock;
+    // Set before any thread runs the source, so a stop() that comes first is never undone
+    private volatile boolean running = true;
+    private long numRecords;
+    private long numSkipped;
+
+    public KafkaInstanceSource(Consumer<byte[], byte[]> consumer, RecordDecoder decoder, java.util.function.Consumer<Instance> sink) {
+        this(consumer, decoder, sink, new Object());
+    }
+
+    public KafkaInstanceSource(Consumer<byte[], byte[]> consumer, RecordDecoder decoder, java.util.function.Consumer<Instance> sink,
+                               Object lock) {
+        this.consumer = consumer;
+        this.decoder = decoder;
+        this.sink = sink;
+        this.lock = lock;
+    }
+
+    public static Consumer<byte[], byte[]> createConsumer(String bootstrapServers, String groupId, String topic, int maxPollRecords,
+                                                         boolean replay) {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        Consumer<byte[], byte[]> consumer = new KafkaConsumer<>(properties);
+        if (replay) {
+            consumer.subscribe(Collections.singletonList(topic), new ReplayFromBeginning(consumer));
+        } else {
+            consumer.subscribe(Collections.singletonList(topic));
+        }
+        return consumer;
+    }
+
+    public static KafkaInstanceSource connect(String bootstrapServers, String groupId, String topic, int maxPollRecords, boolean replay,
+                                              RecordDecoder decoder, java.util.function.Consumer<Instance> sink, Object lock) {
+        return new KafkaInstanceSource(createConsumer(bootstrapServers, groupId, topic, maxPollRecords, replay), decoder, sink, lock);
+    }
+
+    // Trains on one polled batch and commits it, returns the number of records polled
+    public int pollOnce() {
+        ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+        synchronized (lock) {
+            for (ConsumerRecord<byte[], byte[]> record : records) {
+                Instance instance = record.value() == null ? null : decoder.decode(record.value());
+                if (instance != null) {
+                    sink.accept(instance);
+                } else {
+                    numSkipped++;
+                }
+                numRecords++;
+            }
+        }
+        if (!records.isEmpty()) {
+            consumer.commitSync();
+        }
+        return records.count();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                pollOnce();
+            }
+        } catch (WakeupException e) {
+            if (running) {
+                throw e;
+            }
+        } finally {
+            consumer.close();
+        }
+    }
+
+    // Also valid before run() starts, which then only closes the consumer
+    public void stop() {
+        running = false;
+        consumer.wakeup();
+    }
+
+    public long getNumRecords() {
+        return numRecords;
+    }
+
+    public long getNumSkipped() {
+        return numSkipped;
+    }
+
+    /**
+     * Seeks each partition to its first offset the first time it is assigned.
+     * A partition that comes back after a rebalance carries on from where the
+     * consumer left it, so nothing is replayed twice.
+     */
+    public static class ReplayFromBeginning implements ConsumerRebalanceListener {
+        private final Consumer<?, ?> consumer;
+        private final Set<TopicPartition> replayed = new HashSet<>();
+
+        public ReplayFromBeginning(Consumer<?, ?> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            List<TopicPartition> fresh = new ArrayList<>();
+            for (TopicPartition partition : partitions) {
+                if (replayed.add(partition)) {
+                    fresh.add(partition);
+                }
+            }
+            consumer.seekToBeginning(fresh);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package moa3;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * KD-tree over the slots of an InstanceWindow, kept up to date as rows are
+ * inserted and removed. The tree splits on unscaled values, so it survives
+ * any change of the window's scaling: scaling is monotonic per feature, so a
+ * row across a split is at least as far from the query as the split itself.
+ * A subtree is only skipped when that bound is strictly beyond the k-th
+ * distance, so the search visits every row the linear scan would return,
+ * ties included.
+ *
+ * Leaves hold up to LEAF_SIZE slots and split when they overflow. An insert
+ * that lands too deep rebuilds the lowest unbalanced subtree on its path,
+ * and after as many removals as there are rows the whole tree is rebuilt, so
+ * sliding-window and reservoir churn keep queries at O(log n) on average.
+ * Rows with a missing value have no place in the tree and are kept aside in
+ * a list every query scans.
+ */
+public class KdTreeIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int LEAF_SIZE = 16;
+    // A child holding more than this share of its parent's rows makes the parent unbalanced
+    private static final double BALANCE = 0.7;
+
+    // The window's row-major feature values, read but never written here
+    private final double[] values;
+    private final int numFeatures;
+    private final Node[] leafOf;
+    private final int[] unindexed;
+    private final int[] unindexedPosition;
+    private int numUnindexed;
+    private Node root;
+    private int size;
+    private int removalsSinceBuild;
+
+    public KdTreeIndex(double[] values, int numFeatures, int capacity) {
+        this.values = values;
+        this.numFeatures = numFeatures;
+        this.leafOf = new Node[capacity];
+        this.unindexed = new int[capacity];
+        this.unindexedPosition = new int[capacity];
+        Arrays.fill(unindexedPosition, -1);
+    }
+
+    // The slot's values must already be in place
+    public void insert(int slot) {
+        if (hasMissingValue(slot)) {
+            unindexedPosition[slot] = numUnindexed;
+            unindexed[numUnindexed++] = slot;
+            return;
+        }
+        size++;
+        if (root == null) {
+            root = build(new int[] {slot}, 0, 1, null);
+            return;
+        }
+        Node node = root;
+        int depth = 0;
+        while (!node.isLeaf()) {
+            node.size++;
+            node = value(slot, node.dim) < node.split ? node.left : node.right;
+            depth++;
+        }
+        node.add(slot);
+        leafOf[slot] = node;
+        if (node.size > node.splitAt) {
+            replace(node, build(Arrays.copyOf(node.slots, node.size), 0, node.size, node.parent));
+        }
+        if (depth > maxDepth()) {
+            rebalance(leafOf[slot]);
+        }
+    }
+
+    public void remove(int slot) {
+        int position = unindexedPosition[slot];
+        if (position >= 0) {
+            int last = unindexed[--numUnindexed];
+            unindexed[position] = last;
+            unindexedPosition[last] = position;
+            unindexedPosition[slot] = -1;
+            return;
+        }
+        Node leaf = leafOf[slot];
+        if (leaf == null) {
+            return;
+        }
+        leaf.remove(slot);
+        leafOf[slot] = null;
+        for (Node node = leaf.parent; node != null; node = node.parent) {
+            node.size--;
+        }
+        size--;
+        if (++removalsSinceBuild > Math.max(size, LEAF_SIZE)) {
+            root = size == 0 ? null : rebuild(root);
+            removalsSinceBuild = 0;
+        }
+    }
+
+    // Offers the search every row that may be among the neighbours of its query
+    public void search(NeighbourSearch search) {
+        for (int i = 0; i < numUnindexed; i++) {
+            search.offer(unindexed[i]);
+        }
+        if (root != null) {
+            search(root, search);
+        }
+    }
+
+    private void search(Node node, NeighbourSearch search) {
+        if (node.size == 0) {
+            return;
+        }
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                search.offer(node.slots[i]);
+            }
+            return;
+        }
+        // The unscaled query value picks the side, as it does for the bound: a missing one goes left
+        // and has a bound of 0 under every scaling, so nothing is skipped
+        boolean nearLeft = !(search.getQuery()[node.dim] >= node.split);
+        search(nearLeft ? node.left : node.right, search);
+        if (search.getMetric().bound(node.dim, node.split) <= search.getCutOff()) {
+            search(nearLeft ? node.right : node.left, search);
+        }
+    }
+
+    // Scapegoat rebuild: the lowest ancestor with one side much heavier than the other
+    private void rebalance(Node leaf) {
+        for (Node node = leaf.parent; node != null; node = node.parent) {
+            if (Math.max(node.left.size, node.right.size) > BALANCE * node.size) {
+                replace(node, rebuild(node));
+                return;
+            }
+        }
+    }
+
+    private int maxDepth() {
+        return (int) (Math.log(Math.max(size, 1)) / Math.log(1 / BALANCE)) + 1;
+    }
+
+    private Node rebuild(Node node) {
+        int[] slots = new int[node.size];
+        collect(node, slots, 0);
+        return build(slots, 0, slots.length, node.parent);
+    }
+
+    private int collect(Node node, int[] slots, int count) {
+        if (node.isLeaf()) {
+            System.arraycopy(node.slots, 0, slots, count, node.size);
+            return count + node.size;
+        }
+        return collect(node.right, slots, collect(node.left, slots, count));
+    }
+
+    // Median split on the feature with the widest spread; rows that cannot be told apart share a leaf
+    private Node build(int[] slots, int from, int to, Node parent) {
+        Node node = new Node(parent);
+        node.size = to - from;
+        if (node.size > LEAF_SIZE) {
+            int dim = widestFeature(slots, from, to);
+            if (dim >= 0) {
+                int mid = from + node.size / 2;
+                select(slots, from, to, mid, dim);
+                double split = value(slots[mid], dim);
+                int boundary = partition(slots, from, to, dim, split);
+                if (boundary == from) {
+                    // The median is also the minimum, so split just above it
+                    split = nextValue(slots, from, to, dim, split);
+                    boundary = partition(slots, from, to, dim, split);
+                }
+                node.dim = dim;
+                node.split = split;
+                node.left = build(slots, from, boundary, node);
+                node.right = build(slots, boundary, to, node);
+                return node;
+            }
+        }
+        node.slots = Arrays.copyOfRange(slots, from, from + Math.max(node.size, LEAF_SIZE) + 1);
+        // A leaf of identical rows grows until twice its size before trying to split again
+        node.splitAt = node.size > LEAF_SIZE ? 2 * node.size : LEAF_SIZE;
+        for (int i = 0; i < node.size; i++) {
+            leafOf[node.slots[i]] = node;
+        }
+        return node;
+    }
+
+    private void replace(Node old, Node node) {
+        if (old.parent == null) {
+            root = node;
+        } else if (old.parent.left == old) {
+            old.parent.left = node;
+        } else {
+            old.parent.right = node;
+        }
+    }
+
+    private int widestFeature(int[] slots, int from, int to) {
+        int widest = -1;
+        double widestSpread = 0;
+        for (int f = 0; f < numFeatures; f++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                double v = value(slots[i], f);
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (max - min > widestSpread) {
+                widest = f;
+                widestSpread = max - min;
+            }
+        }
+        return widest;
+    }
+
+    // Quickselect: afterwards slots[nth] holds the value it would have in sorted order
+    private void select(int[] slots, int from, int to, int nth, int dim) {
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            double pivot = value(slots[(lo + hi) >>> 1], dim);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (value(slots[i], dim) < pivot) {
+                    i++;
+                }
+                while (value(slots[j], dim) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(slots, i++, j--);
+                }
+            }
+            if (nth <= j) {
+                hi = j;
+            } else if (nth >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    // Moves the rows below split to the front and returns where the rest starts
+    private int partition(int[] slots, int from, int to, int dim, double split) {
+        int boundary = from;
+        for (int i = from; i < to; i++) {
+            if (value(slots[i], dim) < split) {
+                swap(slots, i, boundary++);
+            }
+        }
+        return boundary;
+    }
+
+    private double nextValue(int[] slots, int from, int to, int dim, double value) {
+        double next = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            double v = value(slots[i], dim);
+            if (v > value && v < next) {
+                next = v;
+            }
+        }
+        return next;
+    }
+
+    private boolean hasMissingValue(int slot) {
+        for (int f = 0; f < numFeatures; f++) {
+            if (Double.isNaN(value(slot, f))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double value(int slot, int f) {
+        return values[slot * numFeatures + f];
+    }
+
+    private static void swap(int[] slots, int i, int j) {
+        int slot = slots[i];
+        slots[i] = slots[j];
+        slots[j] = slot;
+    }
+
+    private static class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        Node parent;
+        Node left;
+        Node right;
+        int dim;
+        double split;
+        // Rows in the subtree
+        int size;
+        // Leaves only: slots[0 .. size), and the size past which the leaf splits
+        int[] slots;
+        int splitAt;
+
+        Node(Node parent) {
+            this.parent = parent;
+        }
+
+        boolean isLeaf() {
+            return slots != null;
+        }
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, 2 * size);
+            }
+            slots[size++] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
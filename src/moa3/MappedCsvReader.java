@@ -0,0 +1,391 @@
+package moa3;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Delimited text reader working directly on a memory-mapped file. Fields are
+ * kept as byte offsets into the mapping and numbers are parsed in place, so
+ * reading a row does not create any Strings. The same parser can also be
+ * pointed at single in-memory records, such as message payloads.
+ */
+public class MappedCsvReader implements Closeable {
+    private static final int WINDOW_SIZE = 1 << 28;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private long fileSize;
+    private final byte delimiter;
+    private final byte decimalSeparator;
+    private final String[] header;
+    private final long dataStart;
+    private long rangeEnd;
+    private ByteBuffer buffer;
+    private long windowStart;
+    private int position;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int numFields;
+
+    public MappedCsvReader(String filePath, char delimiter, char decimalSeparator) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.rangeEnd = fileSize;
+        this.delimiter = (byte) delimiter;
+        this.decimalSeparator = (byte) decimalSeparator;
+        map(0);
+        skipByteOrderMark();
+        if (!nextRow()) {
+            throw new IOException("Missing header row in " + filePath);
+        }
+        header = new String[numFields];
+        for (int i = 0; i < numFields; i++) {
+            header[i] = fieldAsString(i);
+        }
+        dataStart = windowStart + position;
+    }
+
+    // Reads only the rows starting in [start, end), without a header row
+    public MappedCsvReader(String filePath, char delimiter, char decimalSeparator, long start, long end) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.rangeEnd = Math.min(end, fileSize);
+        this.delimiter = (byte) delimiter;
+        this.decimalSeparator = (byte) decimalSeparator;
+        this.header = new String[0];
+        this.dataStart = start;
+        map(start);
+    }
+
+    private MappedCsvReader(byte[] headerLine, char delimiter, char decimalSeparator) throws IOException {
+        this.channel = null;
+        this.delimiter = (byte) delimiter;
+        this.decimalSeparator = (byte) decimalSeparator;
+        this.dataStart = 0;
+        if (!readRecord(headerLine)) {
+            throw new IOException("Empty header line");
+        }
+        header = new String[numFields];
+        for (int i = 0; i < numFields; i++) {
+            header[i] = fieldAsString(i);
+        }
+    }
+
+    // Reader for header-less records held in memory, laid out as described by headerLine
+    public static MappedCsvReader forRecords(String headerLine, char delimiter, char decimalSeparator) throws IOException {
+        return new MappedCsvReader(headerLine.getBytes(StandardCharsets.UTF_8), delimiter, decimalSeparator);
+    }
+
+    // Parses one in-memory record, returns false when it holds no row
+    public boolean readRecord(byte[] record) {
+        buffer = ByteBuffer.wrap(record);
+        fileSize = record.length;
+        rangeEnd = record.length;
+        windowStart = 0;
+        position = 0;
+        while (position < record.length && isLineBreak(buffer.get(position))) {
+            position++;
+        }
+        return position < record.length && scanRow();
+    }
+
+    public long getDataStart() {
+        return dataStart;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    // Offset of the first line starting at or after offset (quoted line breaks are not recognised)
+    public long nextLineStart(long offset) throws IOException {
+        if (offset <= dataStart) {
+            return dataStart;
+        }
+        long pos = offset - 1;
+        while (pos < fileSize) {
+            long length = Math.min(1 << 16, fileSize - pos);
+            MappedByteBuffer probe = channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+            for (int i = 0; i < length; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += length;
+        }
+        return fileSize;
+    }
+
+    public int columnIndex(String name) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Mapping for " + name + " not found in header");
+    }
+
+    public boolean nextRow() throws IOException {
+        while (true) {
+            int limit = buffer.limit();
+            while (position < limit && isLineBreak(buffer.get(position))) {
+                position++;
+            }
+            if (position >= limit) {
+                if (atEndOfFile()) {
+                    return false;
+                }
+                map(windowStart + position);
+                continue;
+            }
+            if (windowStart + position >= rangeEnd) {
+                return false;
+            }
+            int rowStart = position;
+            if (scanRow()) {
+                return true;
+            }
+            // The row runs past the end of the mapped window
+            if (rowStart == 0) {
+                throw new IOException("Row longer than " + WINDOW_SIZE + " bytes at offset " + windowStart);
+            }
+            map(windowStart + rowStart);
+        }
+    }
+
+    public int getNumFields() {
+        return numFields;
+    }
+
+    public boolean isEmpty(int column) {
+        return column >= numFields || fieldStart[column] == fieldEnd[column];
+    }
+
+    public boolean fieldEquals(int column, byte[] value) {
+        if (column >= numFields || fieldEnd[column] - fieldStart[column] != value.length) {
+            return false;
+        }
+        int start = fieldStart[column];
+        for (int i = 0; i < value.length; i++) {
+            if (buffer.get(start + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Never throws: empty or malformed fields (including NaN and Infinity literals) come back as NaN
+    public double parseDouble(int column) {
+        if (column >= numFields) {
+            return Double.NaN;
+        }
+        int start = fieldStart[column];
+        int end = fieldEnd[column];
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end) {
+            byte b = buffer.get(i);
+            if (b == '-') {
+                negative = true;
+                i++;
+            } else if (b == '+') {
+                i++;
+            }
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean sawDigit = false;
+        boolean sawPoint = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                sawDigit = true;
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (sawPoint) {
+                    exponent--;
+                }
+                if (digits > 15) {
+                    break;
+                }
+            } else if ((b == decimalSeparator || b == '.') && !sawPoint) {
+                sawPoint = true;
+            } else {
+                break;
+            }
+        }
+        // Exponents, long mantissas and malformed input take the slow path
+        if (i < end || !sawDigit || -exponent >= POWERS_OF_TEN.length) {
+            return parseDoubleSlow(start, end);
+        }
+        double value = exponent == 0 ? mantissa : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private boolean scanRow() {
+        int limit = buffer.limit();
+        int i = position;
+        numFields = 0;
+        while (true) {
+            int start;
+            int end;
+            if (i < limit && buffer.get(i) == '"') {
+                start = ++i;
+                while (true) {
+                    if (i >= limit) {
+                        return atEndOfFile() && finishRow(start, limit, limit);
+                    }
+                    if (buffer.get(i) == '"') {
+                        if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                end = i++;
+                while (i < limit && buffer.get(i) != delimiter && !isLineBreak(buffer.get(i))) {
+                    i++;
+                }
+            } else {
+                start = i;
+                while (i < limit && buffer.get(i) != delimiter && !isLineBreak(buffer.get(i))) {
+                    i++;
+                }
+                end = i;
+            }
+            if (i >= limit) {
+                return atEndOfFile() && finishRow(start, end, limit);
+            }
+            addField(start, end);
+            if (buffer.get(i) != delimiter) {
+                position = i;
+                return true;
+            }
+            i++;
+        }
+    }
+
+    private boolean finishRow(int start, int end, int next) {
+        addField(start, end);
+        position = next;
+        return true;
+    }
+
+    private void addField(int start, int end) {
+        if (numFields == fieldStart.length) {
+            int[] newStart = new int[numFields * 2];
+            int[] newEnd = new int[numFields * 2];
+            System.arraycopy(fieldStart, 0, newStart, 0, numFields);
+            System.arraycopy(fieldEnd, 0, newEnd, 0, numFields);
+            fieldStart = newStart;
+            fieldEnd = newEnd;
+        }
+        fieldStart[numFields] = start;
+        fieldEnd[numFields] = end;
+        numFields++;
+    }
+
+    private double parseDoubleSlow(int start, int end) {
+        // Check the syntax first so that Double.parseDouble below can never throw
+        int i = start;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        boolean sawPoint = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                digits++;
+            } else if ((b == decimalSeparator || b == '.') && !sawPoint) {
+                sawPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            i++;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            for (; i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return Double.NaN;
+            }
+        }
+        if (i != end) {
+            return Double.NaN;
+        }
+
+        byte[] bytes = new byte[end - start];
+        for (int j = 0; j < bytes.length; j++) {
+            byte b = buffer.get(start + j);
+            bytes[j] = b == decimalSeparator ? (byte) '.' : b;
+        }
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    private String fieldAsString(int column) {
+        byte[] bytes = new byte[fieldEnd[column] - fieldStart[column]];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(fieldStart[column] + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void skipByteOrderMark() {
+        if (buffer.limit() >= 3 && buffer.get(0) == (byte) 0xEF
+                && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            position = 3;
+        }
+    }
+
+    private void map(long start) throws IOException {
+        long length = Math.min(WINDOW_SIZE, fileSize - start);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+        position = 0;
+    }
+
+    private boolean atEndOfFile() {
+        return windowStart + buffer.limit() >= fileSize;
+    }
+
+    private static boolean isLineBreak(byte b) {
+        return b == '\n' || b == '\r';
+    }
+}
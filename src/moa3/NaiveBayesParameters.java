@@ -0,0 +1,63 @@
+package moa3;
+
+public class NaiveBayesParameters {
+    private double alpha;
+    private double smoothParameter;
+    private String featureSelection;
+    private String binning;
+    private String option;
+
+    // Constructor
+    public NaiveBayesParameters(double alpha, double smoothParameter, String featureSelection, String binning, String option) {
+        this.alpha = alpha;
+        this.smoothParameter = smoothParameter;
+        this.featureSelection = featureSelection;
+        this.binning = binning;
+        this.option = option;
+    }
+
+    // Getter and Setter for Alpha
+    public double getAlpha() {
+        return alpha;
+    }
+
+    public void setAlpha(double alpha) {
+        this.alpha = alpha;
+    }
+
+    // Getter and Setter for Smooth Parameter
+    public double getSmoothParameter() {
+        return smoothParameter;
+    }
+
+    public void setSmoothParameter(double smoothParameter) {
+        this.smoothParameter = smoothParameter;
+    }
+
+    // Getter and Setter for Feature Selection
+    public String getFeatureSelection() {
+        return featureSelection;
+    }
+
+    public void setFeatureSelection(String featureSelection) {
+        this.featureSelection = featureSelection;
+    }
+
+    // Getter and Setter for Binning
+    public String getBinning() {
+        return binning;
+    }
+
+    public void setBinning(String binning) {
+        this.binning = binning;
+    }
+
+    // Getter and Setter for Option
+    public String getOption() {
+        return option;
+    }
+
+    public void setOption(String option) {
+        this.option = option;
+    }
+}
@@ -0,0 +1,102 @@
+package moa3;
+
+/**
+ * State of one k nearest neighbour query over the slots of an
+ * InstanceWindow. Rows are offered one by one, in any order; the search keeps
+ * the k smallest distances and every offered row that may still end up within
+ * the k-th, so afterwards the neighbours, ties with the k-th included, are the
+ * visited rows at or below getCutOff(). A search is reused for many queries
+ * by one thread.
+ */
+public class NeighbourSearch {
+    public interface Metric {
+        // Distance from the current query to the row in slot
+        double distance(int slot);
+
+        // A distance no row can undercut when it lies across value from the query in feature
+        double bound(int feature, double value);
+    }
+
+    private final Metric metric;
+    // Unscaled feature values of the query, NaN when missing
+    private final double[] query;
+    private final int[] visited;
+    private final double[] visitedDistance;
+    private double[] nearest = new double[0];
+    private int k;
+    private int numNearest;
+    private int numVisited;
+    private int numOffered;
+
+    public NeighbourSearch(int numFeatures, int capacity, Metric metric) {
+        this.metric = metric;
+        this.query = new double[numFeatures];
+        this.visited = new int[capacity];
+        this.visitedDistance = new double[capacity];
+    }
+
+    // k must not exceed the number of rows that will be offered
+    public void start(int k) {
+        this.k = k;
+        if (nearest.length < k) {
+            nearest = new double[k];
+        }
+        numNearest = 0;
+        numVisited = 0;
+        numOffered = 0;
+    }
+
+    public void offer(int slot) {
+        numOffered++;
+        double distance = metric.distance(slot);
+        if (numNearest < k) {
+            insert(numNearest++, distance);
+        } else if (distance < nearest[k - 1]) {
+            insert(k - 1, distance);
+        } else if (distance > nearest[k - 1]) {
+            return;
+        }
+        visited[numVisited] = slot;
+        visitedDistance[numVisited++] = distance;
+    }
+
+    // Rows further than this cannot be neighbours; infinite until k rows were offered
+    public double getCutOff() {
+        return numNearest < k ? Double.POSITIVE_INFINITY : nearest[k - 1];
+    }
+
+    public double[] getQuery() {
+        return query;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public int getNumVisited() {
+        return numVisited;
+    }
+
+    public int getVisited(int i) {
+        return visited[i];
+    }
+
+    public double getVisitedDistance(int i) {
+        return visitedDistance[i];
+    }
+
+    // Rows offered since start(), each one a distance computation
+    int getNumOffered() {
+        return numOffered;
+    }
+
+    // Keeps nearest[0 .. length] ascending after putting distance at or before index length
+    private void insert(int length, double distance) {
+        int i = length;
+        while (i > 0 && nearest[i - 1] > distance) {
+            nearest[i] = nearest[i - 1];
+            i--;
+        }
+        nearest[i] = distance;
+    }
+}
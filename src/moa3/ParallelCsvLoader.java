@@ -0,0 +1,109 @@
+package moa3;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Parses a delimited file on the fork-join pool. The data rows are cut into
+ * byte ranges that start on a line boundary, every range is parsed by its own
+ * MappedCsvReader, and the parsed instances are handed to the sink on the
+ * calling thread, either in file order or in the order the chunks finish.
+ * The row parser is built once from the header row and shared by all
+ * chunks, so it must not keep per-row state. Chunks are collected in column
+ * stores and the sink gets one flyweight moved over their rows, so it has to
+ * copy what it keeps.
+ */
+public class ParallelCsvLoader {
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    public interface RowParser {
+        // Writes the row into values laid out like the dataset header, returns false when
+        // the row has to be skipped, after counting the reason
+        boolean parse(MappedCsvReader reader, double[] values, RejectCounters rejects);
+    }
+
+    private static class Chunk {
+        final ColumnStore instances;
+        final RejectCounters rejects = new RejectCounters();
+
+        Chunk(Instances dataset) {
+            instances = new ColumnStore(dataset);
+        }
+    }
+
+    public static void load(String filePath, char delimiter, char decimalSeparator, Instances dataset,
+                            Function<MappedCsvReader, ? extends RowParser> rowParserFactory,
+                            boolean keepOrder, Consumer<Instance> sink, RejectCounters rejects) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        long[] boundaries;
+        RowParser rowParser;
+        try (MappedCsvReader reader = new MappedCsvReader(filePath, delimiter, decimalSeparator)) {
+            rowParser = rowParserFactory.apply(reader);
+            long dataSize = reader.getFileSize() - reader.getDataStart();
+            int numChunks = (int) Math.max(1, Math.min(pool.getParallelism() * 4L, dataSize / MIN_CHUNK_SIZE));
+            boundaries = new long[numChunks + 1];
+            for (int i = 0; i < numChunks; i++) {
+                boundaries[i] = reader.nextLineStart(reader.getDataStart() + dataSize * i / numChunks);
+            }
+            boundaries[numChunks] = reader.getFileSize();
+        }
+
+        ExecutorCompletionService<Chunk> completionService = new ExecutorCompletionService<>(pool);
+        List<Future<Chunk>> chunks = new ArrayList<>();
+        for (int i = 0; i < boundaries.length - 1; i++) {
+            long start = boundaries[i];
+            long end = boundaries[i + 1];
+            chunks.add(completionService.submit(() -> parseChunk(filePath, delimiter, decimalSeparator, dataset, start, end, rowParser)));
+        }
+
+        try {
+            for (int i = 0; i < chunks.size(); i++) {
+                Chunk chunk = (keepOrder ? chunks.get(i) : completionService.take()).get();
+                InstanceView instance = chunk.instances.flyweight();
+                for (int row = 0; row < chunk.instances.size(); row++) {
+                    sink.accept(instance.moveTo(row));
+                }
+                rejects.add(chunk.rejects);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + filePath, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to load " + filePath, e.getCause());
+        } finally {
+            for (Future<Chunk> chunk : chunks) {
+                chunk.cancel(true);
+            }
+        }
+    }
+
+    private static Chunk parseChunk(String filePath, char delimiter, char decimalSeparator, Instances dataset,
+                                    long start, long end, RowParser rowParser) throws IOException {
+        Chunk chunk = new Chunk(dataset);
+        if (start >= end) {
+            return chunk;
+        }
+        try (MappedCsvReader reader = new MappedCsvReader(filePath, delimiter, decimalSeparator, start, end)) {
+            double[] values = new double[dataset.numAttributes()];
+            while (reader.nextRow()) {
+                if (rowParser.parse(reader, values, chunk.rejects)) {
+                    chunk.instances.add(values);
+                }
+            }
+        }
+        return chunk;
+    }
+}
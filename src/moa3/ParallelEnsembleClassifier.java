@@ -0,0 +1,219 @@
+package moa3;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import moa.classifiers.AbstractClassifier;
+import weka.core.Instance;
+
+/**
+ * Ensemble whose members each run on a dedicated worker thread fed by a
+ * bounded queue. Training instances are copied once and broadcast to every
+ * owned member without waiting; predictions fan out to all workers and join
+ * on a latch, so a call takes about as long as the slowest member instead of
+ * the sum. A worker handles its queue in order, so a prediction always sees
+ * the training queued before it. The votes are summed in member order as in
+ * EnsembleClassifier, so results are the same. In SHARED mode the members are
+ * trained by their owner, so only predictions fan out.
+ *
+ * A failing member is reported to the call that asked for its work: a
+ * prediction to its own caller, a training instance to the next
+ * trainOnInstance or awaitTraining. The workers start on first use, so a
+ * copy or deserialized ensemble holds no threads until it is used; close()
+ * stops them, and whoever uses an ensemble has to close it.
+ */
+public class ParallelEnsembleClassifier extends EnsembleClassifier {
+    private static final long serialVersionUID = 1L;
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private transient MemberWorker[] workers;
+    // The first failure of an owned member's training, until the training thread is told about it
+    private transient AtomicReference<Throwable> trainingFailure;
+
+    public ParallelEnsembleClassifier(MemberMode memberMode, AbstractClassifier... classifiers) {
+        super(memberMode, classifiers);
+    }
+
+    private synchronized MemberWorker[] workers() {
+        if (workers == null) {
+            trainingFailure = new AtomicReference<>();
+            workers = new MemberWorker[getMembers().length];
+            for (int m = 0; m < workers.length; m++) {
+                workers[m] = new MemberWorker("ensemble-member-" + m);
+            }
+        }
+        return workers;
+    }
+
+    @Override
+    protected void trainMembers(Instance instance) {
+        MemberWorker[] workers = workers();
+        rethrowTrainingFailure();
+        // The caller may reuse its instance, so the workers get one copy they all read
+        Instance copy = (Instance) instance.copy();
+        AbstractClassifier[] members = getMembers();
+        for (int m = 0; m < members.length; m++) {
+            AbstractClassifier member = members[m];
+            workers[m].submit(() -> {
+                try {
+                    member.trainOnInstance(copy);
+                } catch (Throwable e) {
+                    trainingFailure.compareAndSet(null, e);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void awaitTraining() {
+        MemberWorker[] workers = workers();
+        Batch batch = new Batch(workers.length);
+        for (MemberWorker worker : workers) {
+            worker.submit(batch.task(() -> { }));
+        }
+        batch.await();
+        rethrowTrainingFailure();
+    }
+
+    @Override
+    protected double[][] getMemberVotes(Instance instance) {
+        MemberWorker[] workers = workers();
+        AbstractClassifier[] members = getMembers();
+        double[][] memberVotes = new double[members.length][];
+        Batch batch = new Batch(members.length);
+        for (int m = 0; m < members.length; m++) {
+            AbstractClassifier member = members[m];
+            int slot = m;
+            workers[m].submit(batch.task(() -> memberVotes[slot] = member.getVotesForInstance(instance)));
+        }
+        batch.await();
+        return memberVotes;
+    }
+
+    @Override
+    protected void getMemberVotesForRows(ColumnStore store, int start, int end, double[][] memberVotes, int numClasses) {
+        MemberWorker[] workers = workers();
+        AbstractClassifier[] members = getMembers();
+        Batch batch = new Batch(members.length);
+        for (int m = 0; m < members.length; m++) {
+            AbstractClassifier member = members[m];
+            double[] votes = memberVotes[m];
+            workers[m].submit(batch.task(() -> BatchPredictor.getVotesForRows(member, store, start, end, votes, numClasses)));
+        }
+        batch.await();
+    }
+
+    @Override
+    protected void getMemberVotesForInstances(Instance[] instances, int start, int end, double[][][] memberVotes) {
+        MemberWorker[] workers = workers();
+        AbstractClassifier[] members = getMembers();
+        Batch batch = new Batch(members.length);
+        for (int m = 0; m < members.length; m++) {
+            AbstractClassifier member = members[m];
+            double[][] votes = memberVotes[m];
+            workers[m].submit(batch.task(() -> BatchPredictor.getVotesForInstances(member, instances, start, end, votes)));
+        }
+        batch.await();
+    }
+
+    // A closed ensemble that is used again starts new workers
+    @Override
+    public synchronized void close() {
+        if (workers == null) {
+            return;
+        }
+        for (MemberWorker worker : workers) {
+            worker.stop();
+        }
+        workers = null;
+    }
+
+    private void rethrowTrainingFailure() {
+        Throwable e = trainingFailure.getAndSet(null);
+        if (e != null) {
+            throw new IllegalStateException("Ensemble member failed to train", e);
+        }
+    }
+
+    /**
+     * The member tasks of one call. Each task counts down whatever it throws,
+     * Errors included, and the first failure goes back to the caller waiting
+     * on this batch only, so concurrent callers never see each other's.
+     */
+    private static class Batch {
+        private final CountDownLatch done;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Batch(int size) {
+            done = new CountDownLatch(size);
+        }
+
+        Runnable task(Runnable work) {
+            return () -> {
+                try {
+                    work.run();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            };
+        }
+
+        void await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for ensemble members", e);
+            }
+            Throwable e = failure.get();
+            if (e != null) {
+                throw new IllegalStateException("Ensemble member failed", e);
+            }
+        }
+    }
+
+    // Runs its queue in order; every task it is given handles its own failures
+    private static class MemberWorker implements Runnable {
+        private static final Runnable STOP = () -> { };
+
+        private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        MemberWorker(String name) {
+            Thread thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void submit(Runnable task) {
+            try {
+                queue.put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing for an ensemble member", e);
+            }
+        }
+
+        void stop() {
+            submit(STOP);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Runnable task = queue.take();
+                    if (task == STOP) {
+                        return;
+                    }
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
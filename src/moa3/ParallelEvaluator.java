@@ -0,0 +1,59 @@
+package moa3;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs a FusedEvaluator on the fork-join pool. The rows are cut into ranges,
+ * each range is scored with its own flyweight view and its own metrics, and
+ * the counts are summed on the way back, so the result is the same as a
+ * sequential pass. Only the prediction path of the classifiers is used, which
+ * must not be trained at the same time.
+ */
+public class ParallelEvaluator {
+    private static final int MIN_RANGE_SIZE = 256;
+
+    // {training, test} metrics per classifier of the evaluator
+    public static ClassificationMetrics[][] measure(FusedEvaluator evaluator, ColumnStore store, DataSplit split) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int rangeSize = Math.max(MIN_RANGE_SIZE, store.size() / (pool.getParallelism() * 8));
+        return pool.invoke(new RangeTask(evaluator, store, split, 0, store.size(), rangeSize));
+    }
+
+    private static class RangeTask extends RecursiveTask<ClassificationMetrics[][]> {
+        private static final long serialVersionUID = 1L;
+        private final FusedEvaluator evaluator;
+        private final ColumnStore store;
+        private final DataSplit split;
+        private final int start;
+        private final int end;
+        private final int rangeSize;
+
+        RangeTask(FusedEvaluator evaluator, ColumnStore store, DataSplit split, int start, int end, int rangeSize) {
+            this.evaluator = evaluator;
+            this.store = store;
+            this.split = split;
+            this.start = start;
+            this.end = end;
+            this.rangeSize = rangeSize;
+        }
+
+        @Override
+        protected ClassificationMetrics[][] compute() {
+            if (end - start <= rangeSize) {
+                return evaluator.measure(store, start, end, split);
+            }
+            int middle = (start + end) >>> 1;
+            RangeTask left = new RangeTask(evaluator, store, split, start, middle, rangeSize);
+            RangeTask right = new RangeTask(evaluator, store, split, middle, end, rangeSize);
+            left.fork();
+            ClassificationMetrics[][] metrics = right.compute();
+            ClassificationMetrics[][] leftMetrics = left.join();
+            for (int c = 0; c < metrics.length; c++) {
+                metrics[c][0].merge(leftMetrics[c][0]);
+                metrics[c][1].merge(leftMetrics[c][1]);
+            }
+            return metrics;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package moa3;
+
+import moa.classifiers.AbstractClassifier;
+import weka.core.Instance;
+
+/**
+ * Prequential (test-then-train) evaluation: every arriving instance is first
+ * scored by each classifier and then used to train it, so accuracy comes out
+ * of the same single pass that trains the models. Besides the accuracy over
+ * everything seen, it keeps the accuracy over the last windowSize instances
+ * and a fading-factor accuracy that weighs older instances down by alpha per
+ * step. Instances that should only be scored (a held-out test set) are
+ * counted separately. Both sides also keep ClassificationMetrics.
+ */
+public class PrequentialEvaluator {
+    public static final int DEFAULT_WINDOW_SIZE = 1000;
+    public static final double DEFAULT_FADING_FACTOR = 0.999;
+
+    private final AbstractClassifier[] classifiers;
+    private final int windowSize;
+    private final double fadingFactor;
+    private final ClassificationMetrics[] metrics;
+    private final ClassificationMetrics[] holdoutMetrics;
+    // Per classifier ring buffer of hits for the sliding window
+    private final boolean[][] window;
+    private final int[] correctInWindow;
+    private final double[] fadingCorrect;
+    private final long[] trainingNanos;
+    private double fadingCount;
+    private long numTested;
+    private long numHoldout;
+
+    public PrequentialEvaluator(int numClasses, AbstractClassifier... classifiers) {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_FADING_FACTOR, numClasses, classifiers);
+    }
+
+    public PrequentialEvaluator(int windowSize, double fadingFactor, int numClasses, AbstractClassifier... classifiers) {
+        if (windowSize < 1 || fadingFactor <= 0 || fadingFactor > 1) {
+            throw new IllegalArgumentException("Window size must be positive and the fading factor in (0, 1]");
+        }
+        this.classifiers = classifiers;
+        this.windowSize = windowSize;
+        this.fadingFactor = fadingFactor;
+        this.metrics = new ClassificationMetrics[classifiers.length];
+        this.holdoutMetrics = new ClassificationMetrics[classifiers.length];
+        for (int i = 0; i < classifiers.length; i++) {
+            metrics[i] = new ClassificationMetrics(numClasses);
+            holdoutMetrics[i] = new ClassificationMetrics(numClasses);
+        }
+        this.window = new boolean[classifiers.length][windowSize];
+        this.correctInWindow = new int[classifiers.length];
+        this.fadingCorrect = new double[classifiers.length];
+        this.trainingNanos = new long[classifiers.length];
+    }
+
+    public void testThenTrain(Instance instance) {
+        int slot = (int) (numTested % windowSize);
+        boolean full = numTested >= windowSize;
+        fadingCount = fadingFactor * fadingCount + 1;
+        for (int i = 0; i < classifiers.length; i++) {
+            double[] votes = classifiers[i].getVotesForInstance(instance);
+            int prediction = maxIndex(votes);
+            boolean hit = prediction == instance.classValue();
+            metrics[i].add(instance.classValue(), prediction, votes);
+            if (full && window[i][slot]) {
+                correctInWindow[i]--;
+            }
+            window[i][slot] = hit;
+            if (hit) {
+                correctInWindow[i]++;
+            }
+            fadingCorrect[i] = fadingFactor * fadingCorrect[i] + (hit ? 1 : 0);
+        }
+        // All models are scored before any is trained, so an ensemble sharing its members sees them untrained on the instance
+        for (int i = 0; i < classifiers.length; i++) {
+            long startTime = System.nanoTime();
+            classifiers[i].trainOnInstance(instance);
+            trainingNanos[i] += System.nanoTime() - startTime;
+        }
+        numTested++;
+    }
+
+    // Scores a held-out instance without training on it
+    public void test(Instance instance) {
+        for (int i = 0; i < classifiers.length; i++) {
+            double[] votes = classifiers[i].getVotesForInstance(instance);
+            holdoutMetrics[i].add(instance.classValue(), maxIndex(votes), votes);
+        }
+        numHoldout++;
+    }
+
+    public double getAccuracy(AbstractClassifier classifier) {
+        return (double) metrics[indexOf(classifier)].getNumCorrect() / numTested;
+    }
+
+    public double getWindowAccuracy(AbstractClassifier classifier) {
+        return (double) correctInWindow[indexOf(classifier)] / Math.min(numTested, windowSize);
+    }
+
+    public double getFadingAccuracy(AbstractClassifier classifier) {
+        return fadingCorrect[indexOf(classifier)] / fadingCount;
+    }
+
+    public double getHoldoutAccuracy(AbstractClassifier classifier) {
+        return (double) holdoutMetrics[indexOf(classifier)].getNumCorrect() / numHoldout;
+    }
+
+    // Metrics of the test-then-train predictions
+    public ClassificationMetrics getMetrics(AbstractClassifier classifier) {
+        return metrics[indexOf(classifier)];
+    }
+
+    public ClassificationMetrics getHoldoutMetrics(AbstractClassifier classifier) {
+        return holdoutMetrics[indexOf(classifier)];
+    }
+
+    public long getTrainingTime(AbstractClassifier classifier) {
+        return trainingNanos[indexOf(classifier)] / 1000000;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public double getFadingFactor() {
+        return fadingFactor;
+    }
+
+    private int indexOf(AbstractClassifier classifier) {
+        for (int i = 0; i < classifiers.length; i++) {
+            if (classifiers[i] == classifier) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Classifier is not evaluated: " + classifier);
+    }
+
+    private static int maxIndex(double[] votes) {
+        int maxIdx = 0;
+        for (int i = 1; i < votes.length; i++) {
+            if (votes[i] > votes[maxIdx]) {
+                maxIdx = i;
+            }
+        }
+        return maxIdx;
+    }
+}
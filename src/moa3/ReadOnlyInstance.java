@@ -0,0 +1,293 @@
+package moa3;
+
+import java.util.Enumeration;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+/**
+ * Base for Instance implementations that read their values from storage owned
+ * by someone else, such as a ColumnStore row or a parse buffer. Subclasses
+ * supply value() and dataset(); everything else is derived from those. The
+ * instances are read-only: anything that wants to keep or modify a row gets a
+ * DenseInstance from copy(), which is also what Instances.add stores.
+ */
+public abstract class ReadOnlyInstance implements Instance {
+    @Override
+    public abstract double value(int attIndex);
+
+    @Override
+    public abstract Instances dataset();
+
+    @Override
+    public double value(Attribute att) {
+        return value(att.index());
+    }
+
+    @Override
+    public double valueSparse(int indexOfIndex) {
+        return value(indexOfIndex);
+    }
+
+    @Override
+    public int index(int position) {
+        return position;
+    }
+
+    @Override
+    public int numValues() {
+        return numAttributes();
+    }
+
+    @Override
+    public int numAttributes() {
+        return dataset().numAttributes();
+    }
+
+    @Override
+    public int numClasses() {
+        return dataset().numClasses();
+    }
+
+    @Override
+    public double weight() {
+        return 1.0;
+    }
+
+    @Override
+    public Attribute attribute(int index) {
+        return dataset().attribute(index);
+    }
+
+    @Override
+    public Attribute attributeSparse(int indexOfIndex) {
+        return attribute(indexOfIndex);
+    }
+
+    @Override
+    public Attribute classAttribute() {
+        return dataset().classAttribute();
+    }
+
+    @Override
+    public int classIndex() {
+        return dataset().classIndex();
+    }
+
+    @Override
+    public double classValue() {
+        return value(classIndex());
+    }
+
+    @Override
+    public boolean classIsMissing() {
+        return Utils.isMissingValue(classValue());
+    }
+
+    @Override
+    public boolean isMissing(int attIndex) {
+        return Utils.isMissingValue(value(attIndex));
+    }
+
+    @Override
+    public boolean isMissingSparse(int indexOfIndex) {
+        return isMissing(indexOfIndex);
+    }
+
+    @Override
+    public boolean isMissing(Attribute att) {
+        return isMissing(att.index());
+    }
+
+    @Override
+    public boolean hasMissingValue() {
+        for (int i = 0; i < numAttributes(); i++) {
+            if (isMissing(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Enumeration<Attribute> enumerateAttributes() {
+        return dataset().enumerateAttributes();
+    }
+
+    @Override
+    public boolean equalHeaders(Instance inst) {
+        return dataset().equalHeaders(inst.dataset());
+    }
+
+    @Override
+    public String equalHeadersMsg(Instance inst) {
+        return dataset().equalHeadersMsg(inst.dataset());
+    }
+
+    @Override
+    public double[] toDoubleArray() {
+        double[] values = new double[numAttributes()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value(i);
+        }
+        return values;
+    }
+
+    @Override
+    public Object copy() {
+        Instance copy = new DenseInstance(weight(), toDoubleArray());
+        copy.setDataset(dataset());
+        return copy;
+    }
+
+    private Instance dense() {
+        return (Instance) copy();
+    }
+
+    @Override
+    public Instance mergeInstance(Instance inst) {
+        return dense().mergeInstance(inst);
+    }
+
+    @Override
+    public Instances relationalValue(int attIndex) {
+        return dense().relationalValue(attIndex);
+    }
+
+    @Override
+    public Instances relationalValue(Attribute att) {
+        return dense().relationalValue(att);
+    }
+
+    @Override
+    public String stringValue(int attIndex) {
+        return dense().stringValue(attIndex);
+    }
+
+    @Override
+    public String stringValue(Attribute att) {
+        return dense().stringValue(att);
+    }
+
+    @Override
+    public String toStringNoWeight(int afterDecimalPoint) {
+        return dense().toStringNoWeight(afterDecimalPoint);
+    }
+
+    @Override
+    public String toStringNoWeight() {
+        return dense().toStringNoWeight();
+    }
+
+    @Override
+    public String toStringMaxDecimalDigits(int afterDecimalPoint) {
+        return dense().toStringMaxDecimalDigits(afterDecimalPoint);
+    }
+
+    @Override
+    public String toString(int attIndex, int afterDecimalPoint) {
+        return dense().toString(attIndex, afterDecimalPoint);
+    }
+
+    @Override
+    public String toString(int attIndex) {
+        return dense().toString(attIndex);
+    }
+
+    @Override
+    public String toString(Attribute att, int afterDecimalPoint) {
+        return dense().toString(att, afterDecimalPoint);
+    }
+
+    @Override
+    public String toString(Attribute att) {
+        return dense().toString(att);
+    }
+
+    @Override
+    public String toString() {
+        return dense().toString();
+    }
+
+    @Override
+    public void deleteAttributeAt(int position) {
+        throw readOnly();
+    }
+
+    @Override
+    public void insertAttributeAt(int position) {
+        throw readOnly();
+    }
+
+    @Override
+    public void replaceMissingValues(double[] array) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setClassMissing() {
+        throw readOnly();
+    }
+
+    @Override
+    public void setClassValue(double value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setClassValue(String value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setDataset(Instances instances) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setMissing(int attIndex) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setMissing(Attribute att) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setValue(int attIndex, double value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setValueSparse(int indexOfIndex, double value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setValue(int attIndex, String value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setValue(Attribute att, double value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setValue(Attribute att, String value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setWeight(double weight) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Instance is read-only, use copy()");
+    }
+}
@@ -0,0 +1,73 @@
+package moa3;
+
+/**
+ * Counts accepted rows and rejected rows by reason while a data source is
+ * read, so data quality can be reported without paying for exceptions.
+ */
+public class RejectCounters {
+    public static final int EMPTY = 0;
+    public static final int MALFORMED = 1;
+    public static final int OUT_OF_RANGE = 2;
+    public static final int NUM_REASONS = 3;
+    private static final String[] REASONS = {"Empty", "Malformed", "Out of range"};
+
+    private final long[] rejected = new long[NUM_REASONS];
+    private long accepted;
+
+    public void accept() {
+        accepted++;
+    }
+
+    public void reject(int reason) {
+        rejected[reason]++;
+    }
+
+    public void reject(int reason, long count) {
+        rejected[reason] += count;
+    }
+
+    // Returns the reject reason for a parsed value, or -1 when it is usable
+    public static int check(double value) {
+        if (Double.isNaN(value)) {
+            return MALFORMED;
+        }
+        if (Double.isInfinite(value)) {
+            return OUT_OF_RANGE;
+        }
+        return -1;
+    }
+
+    public void add(RejectCounters other) {
+        accepted += other.accepted;
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] += other.rejected[i];
+        }
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected(int reason) {
+        return rejected[reason];
+    }
+
+    public long getTotalRejected() {
+        long total = 0;
+        for (long count : rejected) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append("Accepted rows: ").append(accepted).append("\n")
+           .append("Rejected rows: ").append(getTotalRejected()).append("\n");
+        for (int i = 0; i < NUM_REASONS; i++) {
+            out.append("  ").append(REASONS[i]).append(": ").append(rejected[i]).append("\n");
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package moa3;
+
+import java.util.EnumSet;
+
+/**
+ * Keeps track of which models have to be rebuilt. A model whose parameters
+ * change is invalidated together with every model that depends on it: the
+ * ensemble is built from the Hoeffding tree and Naive Bayes, so it goes
+ * stale with either of them, while KNN stands alone. Stale models are handed
+ * out in declaration order, so a model always comes after the models it
+ * depends on.
+ */
+public class RetrainScheduler {
+    public enum Model {
+        KNN,
+        HOEFFDING_TREE,
+        NAIVE_BAYES,
+        ENSEMBLE(HOEFFDING_TREE, NAIVE_BAYES);
+
+        private final Model[] dependencies;
+
+        Model(Model... dependencies) {
+            this.dependencies = dependencies;
+        }
+
+        public boolean dependsOn(Model model) {
+            for (Model dependency : dependencies) {
+                if (dependency == model || dependency.dependsOn(model)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final EnumSet<Model> stale = EnumSet.allOf(Model.class);
+
+    public void invalidate(Model model) {
+        stale.add(model);
+        for (Model dependent : Model.values()) {
+            if (dependent.dependsOn(model)) {
+                stale.add(dependent);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        stale.addAll(EnumSet.allOf(Model.class));
+    }
+
+    // The stale models in dependency order; afterwards nothing is stale
+    public EnumSet<Model> takeStale() {
+        EnumSet<Model> models = EnumSet.copyOf(stale);
+        stale.clear();
+        return models;
+    }
+}
@@ -0,0 +1,84 @@
+package moa3;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns the current row of a MappedCsvReader into attribute values, using
+ * column indexes resolved once by DatasetSchema.compile. The values are
+ * written into a caller-owned buffer, usually the one behind a
+ * FlyweightInstance, so no row allocates. Extractors hold no per-row state,
+ * so one extractor can be shared by the parallel loader's chunks.
+ */
+public class RowExtractor implements ParallelCsvLoader.RowParser {
+    private final int[] columns;
+    private final double[] minValues;
+    private final double[] maxValues;
+    private final int classColumn;
+    private final DatasetSchema.ClassRule classRule;
+    private final double classThreshold;
+    private final byte[] classPositive;
+    private final int numClasses;
+
+    RowExtractor(int[] columns, double[] minValues, double[] maxValues, int classColumn,
+                 DatasetSchema.ClassRule classRule, double classThreshold, String classPositive, int numClasses) {
+        this.columns = columns;
+        this.minValues = minValues;
+        this.maxValues = maxValues;
+        this.classColumn = classColumn;
+        this.classRule = classRule;
+        this.classThreshold = classThreshold;
+        this.classPositive = classPositive == null ? null : classPositive.getBytes(StandardCharsets.UTF_8);
+        this.numClasses = numClasses;
+    }
+
+    // Returns false for rows with empty, malformed or out of range fields, after counting the reason
+    @Override
+    public boolean parse(MappedCsvReader reader, double[] values, RejectCounters rejects) {
+        for (int i = 0; i < columns.length; i++) {
+            if (reader.isEmpty(columns[i])) {
+                rejects.reject(RejectCounters.EMPTY);
+                return false;
+            }
+            values[i] = reader.parseDouble(columns[i]);
+            int reason = RejectCounters.check(values[i]);
+            if (reason < 0 && (values[i] < minValues[i] || values[i] > maxValues[i])) {
+                reason = RejectCounters.OUT_OF_RANGE;
+            }
+            if (reason >= 0) {
+                rejects.reject(reason);
+                return false;
+            }
+        }
+        if (reader.isEmpty(classColumn)) {
+            rejects.reject(RejectCounters.EMPTY);
+            return false;
+        }
+        int classIndex = classIndex(reader);
+        if (classIndex < 0) {
+            rejects.reject(-classIndex - 1);
+            return false;
+        }
+        values[columns.length] = classIndex;
+        rejects.accept();
+        return true;
+    }
+
+    // Class index of the row, or -(reason + 1) when the label is unusable
+    private int classIndex(MappedCsvReader reader) {
+        if (classRule == DatasetSchema.ClassRule.EQUALS) {
+            return reader.fieldEquals(classColumn, classPositive) ? 1 : 0;
+        }
+        double value = reader.parseDouble(classColumn);
+        int reason = RejectCounters.check(value);
+        if (reason >= 0) {
+            return -reason - 1;
+        }
+        if (classRule == DatasetSchema.ClassRule.THRESHOLD) {
+            return value > classThreshold ? 1 : 0;
+        }
+        if (value != Math.rint(value) || value < 0 || value >= numClasses) {
+            return -RejectCounters.OUT_OF_RANGE - 1;
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,1022 @@
+package moa3;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.swing.table.TableModel;
+import java.io.FileWriter;
+
+import moa.classifiers.trees.HoeffdingTree;
+import moa.classifiers.bayes.NaiveBayes;
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+import moa.classifiers.AbstractClassifier;
+
+/**
+ * Stream classification GUI for any dataset described by a DatasetSchema.
+ * Run it with the schema location as the only argument, or through one of
+ * the dataset launchers (MOA3, MOA4, MOA5).
+ */
+public class StreamClassification {
+    private HoeffdingTreeParameters hoeffdingTreeParameters = new HoeffdingTreeParameters(0.05, 200, 10, 10, 0.1);
+   private NaiveBayesParameters naiveBayesParameters = new NaiveBayesParameters(1.0, 0.5,            "FeatureA","BinningMethod",  "-F 10"    );
+
+    private StreamKNN knn;
+    private HoeffdingTree hoeffdingTree;
+    private NaiveBayes naiveBayes;
+    private EnsembleClassifier ensembleClassifier;
+    private Instances dataset;
+    private ColumnStore sampleData;
+    private DataSplit split;
+    private DataSplit.Mode splitMode;
+    private long seed;
+    private int numFolds;
+    private int testFold;
+    private final DatasetSchema schema;
+    private String dataPath;
+    private boolean streamingMode;
+    private boolean parallelMode;
+    private boolean parallelEvaluation;
+    private boolean concurrentTraining;
+    private EnsembleClassifier.MemberMode ensembleMemberMode;
+    private InstanceWindow.Scaling knnScaling;
+    private InstanceWindow.Index knnIndex;
+    private boolean parallelEnsemble;
+    private boolean keepOrder;
+    private boolean useCache;
+    private TrainTestRouter trainTestRouter;
+    private boolean prequentialMode;
+    private PrequentialEvaluator evaluator;
+    private final EvaluationCache evaluationCache = new EvaluationCache();
+    private final RetrainScheduler retrainScheduler = new RetrainScheduler();
+    private int windowSize;
+    private double fadingFactor;
+    private RejectCounters rejectCounters = new RejectCounters();
+    // Held by the Kafka thread while it trains a batch and by the GUI while it reads models and metrics
+    private final Object modelLock = new Object();
+    private boolean kafkaMode;
+    private KafkaInstanceSource kafkaSource;
+    private Thread kafkaThread;
+    private JPanel mainPanel;
+    private JTextArea textArea;
+    private JButton showButton;
+    private JButton updateButton;
+    private JButton exitButton;
+    private JComboBox<String> algorithmComboBox;
+    private boolean knnRan = false;
+    private boolean hoeffdingTreeRan = false;
+    private boolean naiveBayesRan = false;
+    private boolean ensembleRan = false;
+    
+
+    private long knnTime;
+    private long hoeffdingTreeTime;
+    private long naiveBayesTime;
+    private long ensembleTime;
+    // Thread CPU time of the batch training, -1 when it was not measured
+    private long knnCpuTime = -1;
+    private long hoeffdingTreeCpuTime = -1;
+    private long naiveBayesCpuTime = -1;
+    private long ensembleCpuTime = -1;
+
+    private static final int STREAM_PREVIEW_SIZE = 100;
+    private static final long DEFAULT_SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: StreamClassification <schema.properties>");
+            System.exit(1);
+        }
+        launch(args[0]);
+    }
+
+    public static void launch(String schemaLocation) throws IOException {
+        DatasetSchema schema = DatasetSchema.load(schemaLocation);
+        SwingUtilities.invokeLater(() -> new StreamClassification(schema).createAndShowGUI());
+    }
+
+    public StreamClassification(DatasetSchema schema) {
+        this.schema = schema;
+        int k = 3;
+        int maxSize = 100;
+        boolean useReservoir = false;
+
+        knnScaling = InstanceWindow.Scaling.valueOf(System.getProperty("moa3.knnScaling", "min_max").toUpperCase());
+        knnIndex = InstanceWindow.Index.valueOf(System.getProperty("moa3.knnIndex", "linear").toUpperCase());
+        knn = new StreamKNN(k, maxSize, useReservoir, knnScaling, knnIndex);
+        knn.resetLearningImpl();
+
+        hoeffdingTree = new HoeffdingTree();
+        hoeffdingTree.prepareForUse();
+
+        naiveBayes = new NaiveBayes();
+        naiveBayes.prepareForUse();
+
+        dataset = schema.createHeader();
+
+        dataPath = schema.getDataPath();
+        kafkaMode = System.getProperty("moa3.kafka.bootstrap") != null;
+        streamingMode = kafkaMode || Boolean.getBoolean("moa3.streaming");
+        parallelMode = !streamingMode && Boolean.getBoolean("moa3.parallel");
+        parallelEvaluation = Boolean.getBoolean("moa3.parallelEval");
+        concurrentTraining = Boolean.getBoolean("moa3.concurrentTraining");
+        parallelEnsemble = Boolean.getBoolean("moa3.parallelEnsemble");
+        // Shared members are trained by their owner, so only an ensemble with its own members trains them in parallel
+        ensembleMemberMode = EnsembleClassifier.MemberMode.valueOf(
+                System.getProperty("moa3.ensembleMembers", parallelEnsemble ? "own" : "shared").toUpperCase());
+        prequentialMode = Boolean.getBoolean("moa3.prequential");
+        windowSize = Integer.getInteger("moa3.window", PrequentialEvaluator.DEFAULT_WINDOW_SIZE);
+        fadingFactor = Double.parseDouble(System.getProperty("moa3.fading", String.valueOf(PrequentialEvaluator.DEFAULT_FADING_FACTOR)));
+        keepOrder = !"false".equals(System.getProperty("moa3.keepOrder"));
+        useCache = !"false".equals(System.getProperty("moa3.cache"));
+        splitMode = DataSplit.Mode.valueOf(System.getProperty("moa3.split", "random").toUpperCase());
+        seed = Long.getLong("moa3.seed", DEFAULT_SEED);
+        numFolds = Integer.getInteger("moa3.folds", 0);
+        testFold = Integer.getInteger("moa3.fold", 0);
+        if (numFolds > 1 && (testFold < 0 || testFold >= numFolds)) {
+            throw new IllegalArgumentException("Test fold must be between 0 and " + (numFolds - 1) + ", got moa3.fold=" + testFold);
+        }
+        sampleData = new ColumnStore(dataset);
+        if (!streamingMode) {
+            try {
+                if (!useCache || !InstanceCache.load(dataPath, schema.getExtractionFingerprint(), dataset, sampleData::add, rejectCounters)) {
+                    readDataFromCSV(dataPath, sampleData::add);
+                    if (useCache) {
+                        InstanceCache.write(dataPath, schema.getExtractionFingerprint(), sampleData, rejectCounters);
+                    }
+                }
+                sampleData.trimToSize();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+
+            splitData(0.8);
+        }
+
+        trainAllClassifiers();
+    }
+
+    // The sink gets one reused flyweight per row and has to copy whatever it keeps
+    private void readDataFromCSV(String filePath, Consumer<Instance> sink) throws IOException {
+        if (parallelMode) {
+            ParallelCsvLoader.load(filePath, schema.getDelimiter(), schema.getDecimalSeparator(), dataset,
+                    schema::compile, keepOrder, sink, rejectCounters);
+            return;
+        }
+        try (MappedCsvReader reader = new MappedCsvReader(filePath, schema.getDelimiter(), schema.getDecimalSeparator())) {
+            RowExtractor extractor = schema.compile(reader);
+            FlyweightInstance instance = new FlyweightInstance(dataset);
+            while (reader.nextRow()) {
+                if (extractor.parse(reader, instance.getValues(), rejectCounters)) {
+                    sink.accept(instance);
+                }
+            }
+        }
+    }
+
+    // The split only marks rows of sampleData; with moa3.folds set, fold moa3.fold is the test side
+    private void splitData(double trainRatio) {
+        if (numFolds > 1) {
+            split = DataSplit.fold(DataSplit.kFoldAssignment(sampleData.size(), numFolds, seed), testFold);
+        } else {
+            split = DataSplit.create(splitMode, sampleData, trainRatio, seed);
+        }
+    }
+
+    private void trainAllClassifiers() {
+        retrainScheduler.invalidateAll();
+        retrainInvalidated();
+    }
+
+    // Rebuilds the model whose parameters changed and the models depending on it
+    private void retrain(RetrainScheduler.Model model) {
+        retrainScheduler.invalidate(model);
+        retrainInvalidated();
+    }
+
+    private void retrainInvalidated() {
+        EnumSet<RetrainScheduler.Model> stale = retrainScheduler.takeStale();
+        // The evaluators of these modes score all four models in one pass over the rows, so every model is
+        // reset first and rebuilt from scratch whichever one went stale
+        if (streamingMode) {
+            streamAllClassifiers();
+            return;
+        }
+        if (prequentialMode) {
+            evaluateAllClassifiers();
+            return;
+        }
+        evaluator = null;
+        TimedTraining knnTraining = null;
+        TimedTraining hoeffdingTreeTraining = null;
+        TimedTraining naiveBayesTraining = null;
+        TimedTraining ensembleTraining = null;
+        if (stale.contains(RetrainScheduler.Model.KNN)) {
+            knnTraining = new TimedTraining(sampleData, split, knn::trainOnInstanceImpl);
+        }
+        if (stale.contains(RetrainScheduler.Model.HOEFFDING_TREE)) {
+            hoeffdingTreeTraining = new TimedTraining(sampleData, split, hoeffdingTree::trainOnInstance);
+        }
+        if (stale.contains(RetrainScheduler.Model.NAIVE_BAYES)) {
+            naiveBayesTraining = new TimedTraining(sampleData, split, naiveBayes::trainOnInstance);
+        }
+        if (stale.contains(RetrainScheduler.Model.ENSEMBLE)) {
+            EnsembleClassifier ensemble = rebuildEnsemble();
+            ensembleTraining = new TimedTraining(sampleData, split, ensemble::trainOnInstance, ensemble::awaitTraining);
+        }
+
+        if (concurrentTraining) {
+            trainConcurrently(knnTraining, hoeffdingTreeTraining, naiveBayesTraining, ensembleTraining);
+        } else {
+            for (TimedTraining training : new TimedTraining[]{knnTraining, hoeffdingTreeTraining, naiveBayesTraining, ensembleTraining}) {
+                if (training != null) {
+                    training.run();
+                }
+            }
+        }
+        if (knnTraining != null) {
+            knnTime = knnTraining.getWallTime();
+            knnCpuTime = knnTraining.getCpuTime();
+            evaluationCache.modelChanged(knn);
+        }
+        if (hoeffdingTreeTraining != null) {
+            hoeffdingTreeTime = hoeffdingTreeTraining.getWallTime();
+            hoeffdingTreeCpuTime = hoeffdingTreeTraining.getCpuTime();
+            evaluationCache.modelChanged(hoeffdingTree);
+        }
+        if (naiveBayesTraining != null) {
+            naiveBayesTime = naiveBayesTraining.getWallTime();
+            naiveBayesCpuTime = naiveBayesTraining.getCpuTime();
+            evaluationCache.modelChanged(naiveBayes);
+        }
+        if (ensembleTraining != null) {
+            ensembleTime = ensembleTraining.getWallTime();
+            ensembleCpuTime = ensembleTraining.getCpuTime();
+            evaluationCache.modelChanged(ensembleClassifier);
+        }
+        evaluationCache.retainOnly(knn, hoeffdingTree, naiveBayes, ensembleClassifier);
+    }
+
+    // The replaced ensemble is closed, which stops the member workers of a parallel one
+    private EnsembleClassifier rebuildEnsemble() {
+        if (ensembleClassifier != null) {
+            ensembleClassifier.close();
+        }
+        ensembleClassifier = parallelEnsemble
+                ? new ParallelEnsembleClassifier(ensembleMemberMode, hoeffdingTree, naiveBayes)
+                : new EnsembleClassifier(ensembleMemberMode, hoeffdingTree, naiveBayes);
+        return ensembleClassifier;
+    }
+
+    // Every model trains on its own thread: the ensemble either only combines the other models or trains
+    // its own copies of them, so none of the passes touch another model. Trainings that are null are skipped.
+    private void trainConcurrently(TimedTraining... trainings) {
+        ExecutorService executor = Executors.newFixedThreadPool(trainings.length);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (TimedTraining training : trainings) {
+                done.add(submit(executor, training));
+            }
+            for (Future<?> training : done) {
+                training.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while training", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Training failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Future<?> submit(ExecutorService executor, TimedTraining training) {
+        return training != null ? executor.submit(training) : CompletableFuture.completedFuture(null);
+    }
+
+    // Streaming mode: rows go from the reader straight into the models, only a short preview is kept
+    private void streamAllClassifiers() {
+        stopKafkaSource();
+        resetAllClassifiers();
+        evaluator = new PrequentialEvaluator(windowSize, fadingFactor, dataset.numClasses(), knn, hoeffdingTree, naiveBayes, ensembleClassifier);
+        trainTestRouter = new TrainTestRouter(0.8, seed, evaluator);
+        rejectCounters = new RejectCounters();
+        if (kafkaMode) {
+            startKafkaSource();
+            return;
+        }
+        sampleData.clear();
+        Consumer<Instance> sink = instance -> {
+            if (sampleData.size() < STREAM_PREVIEW_SIZE) {
+                sampleData.add(instance);
+            }
+            trainTestRouter.accept(instance);
+        };
+        try {
+            // A cache written by an earlier batch run is read row by row from the mapped columns
+            if (!useCache || !InstanceCache.load(dataPath, schema.getExtractionFingerprint(), dataset, sink, rejectCounters)) {
+                readDataFromCSV(dataPath, sink);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        ensembleClassifier.awaitTraining();
+        updateEvaluatorTimes();
+    }
+
+    // A pass that feeds every row to every model must start from untrained models, or the models that did
+    // not change would learn each row twice and be scored on rows they already saw
+    private void resetAllClassifiers() {
+        knn.resetLearning();
+        hoeffdingTree.resetLearning();
+        naiveBayes.resetLearning();
+        rebuildEnsemble();
+    }
+
+    // Prequential mode: a single pass over the rows, training rows are scored just before they are learned
+    // and held-out rows are only scored, so no separate accuracy passes are needed afterwards
+    private void evaluateAllClassifiers() {
+        resetAllClassifiers();
+        evaluator = new PrequentialEvaluator(windowSize, fadingFactor, dataset.numClasses(), knn, hoeffdingTree, naiveBayes, ensembleClassifier);
+        InstanceView instance = sampleData.flyweight();
+        for (int row = 0; row < sampleData.size(); row++) {
+            instance.moveTo(row);
+            if (split.isTrain(row)) {
+                evaluator.testThenTrain(instance);
+            } else {
+                evaluator.test(instance);
+            }
+        }
+        ensembleClassifier.awaitTraining();
+        updateEvaluatorTimes();
+    }
+
+    private void updateEvaluatorTimes() {
+        knnTime = evaluator.getTrainingTime(knn);
+        hoeffdingTreeTime = evaluator.getTrainingTime(hoeffdingTree);
+        naiveBayesTime = evaluator.getTrainingTime(naiveBayes);
+        ensembleTime = evaluator.getTrainingTime(ensembleClassifier);
+        knnCpuTime = -1;
+        hoeffdingTreeCpuTime = -1;
+        naiveBayesCpuTime = -1;
+        ensembleCpuTime = -1;
+    }
+
+    // Kafka mode: records are decoded with the same column layout as the CSV and trained on a background thread.
+    // Every start follows a reset of all models, so the consumer replays the topic from its first offsets.
+    private void startKafkaSource() {
+        try {
+            MappedCsvReader recordReader = MappedCsvReader.forRecords(
+                    System.getProperty("moa3.kafka.header", schema.getRecordHeader()),
+                    schema.getDelimiter(), schema.getDecimalSeparator());
+            RowExtractor extractor = schema.compile(recordReader);
+            FlyweightInstance record = new FlyweightInstance(dataset);
+            kafkaSource = KafkaInstanceSource.connect(
+                    System.getProperty("moa3.kafka.bootstrap"),
+                    System.getProperty("moa3.kafka.group", "moa3"),
+                    System.getProperty("moa3.kafka.topic", schema.getKafkaTopic()),
+                    Integer.getInteger("moa3.kafka.maxPoll", 500),
+                    true,
+                    value -> recordReader.readRecord(value) && extractor.parse(recordReader, record.getValues(), rejectCounters) ? record : null,
+                    trainTestRouter::accept,
+                    modelLock);
+            kafkaThread = new Thread(kafkaSource, "kafka-instance-source");
+            kafkaThread.setDaemon(true);
+            kafkaThread.start();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Kafka mode trains on a background thread, so a parallel ensemble may still have rows queued; the caller holds modelLock
+    private void awaitKafkaTraining() {
+        if (kafkaMode) {
+            ensembleClassifier.awaitTraining();
+        }
+    }
+
+    private void stopKafkaSource() {
+        if (kafkaSource == null) {
+            return;
+        }
+        kafkaSource.stop();
+        try {
+            kafkaThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        kafkaSource = null;
+        kafkaThread = null;
+    }
+
+    private void createAndShowGUI() {
+        JFrame frame = new JFrame("Stream Classification GUI");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setSize(900, 600);
+        frame.setLayout(new BorderLayout());
+
+        mainPanel = new JPanel(new BorderLayout());
+        textArea = new JTextArea();
+        textArea.setEditable(false);
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel();
+        JButton knnButton = new JButton("Run KNN");
+        JButton hoeffdingButton = new JButton("Run Hoeffding Tree");
+        JButton naiveBayesButton = new JButton("Run Naive Bayes");
+        JButton ensembleButton = new JButton("Run Ensemble");
+        showButton = new JButton("Show");
+        updateButton = new JButton("Update");
+        exitButton  = new JButton("Exit");
+
+        showButton.setEnabled(false);
+        updateButton.setEnabled(false);
+
+        algorithmComboBox = new JComboBox<>(new String[]{"KNN", "Hoeffding Tree", "Naive Bayes", "Ensemble"});
+        algorithmComboBox.addActionListener(e -> updateButton.setEnabled(true));
+
+        knnButton.addActionListener(e -> {
+            showAccuracy("KNN");
+            knnRan = true;
+            checkAllRun();
+        });
+        hoeffdingButton.addActionListener(e -> {
+            showAccuracy("Hoeffding Tree");
+            hoeffdingTreeRan = true;
+            checkAllRun();
+        });
+        naiveBayesButton.addActionListener(e -> {
+            showAccuracy("Naive Bayes");
+            naiveBayesRan = true;
+            checkAllRun();
+        });
+        ensembleButton.addActionListener(e -> {
+            showAccuracy("Ensemble");
+            ensembleRan = true;
+            checkAllRun();
+        });
+        showButton.addActionListener(e -> showBenchmarkTable());
+
+        updateButton.addActionListener(e -> {
+            String selectedAlgorithm = (String) algorithmComboBox.getSelectedItem();
+            updateParameters(selectedAlgorithm);
+        });
+        
+        exitButton.addActionListener(new ActionListener (){
+        public void actionPerformed (ActionEvent e){
+            System.exit(0);
+        }
+       
+    });
+
+        buttonPanel.add(knnButton);
+        buttonPanel.add(hoeffdingButton);
+        buttonPanel.add(naiveBayesButton);
+        buttonPanel.add(ensembleButton);
+        buttonPanel.add(algorithmComboBox);
+        buttonPanel.add(updateButton);
+        buttonPanel.add(showButton);
+        buttonPanel.add(exitButton);
+        
+
+        frame.add(buttonPanel, BorderLayout.NORTH);
+        frame.add(mainPanel, BorderLayout.CENTER);
+
+        frame.setVisible(true);
+
+        displayStreamData();
+    }
+
+    private void checkAllRun() {
+        if (knnRan && hoeffdingTreeRan && naiveBayesRan && ensembleRan) {
+            showButton.setEnabled(true);
+        }
+    }
+
+    private void showAccuracy(String classifierName) {
+        synchronized (modelLock) {
+            awaitKafkaTraining();
+            appendAccuracy(classifierName);
+        }
+    }
+
+    private void appendAccuracy(String classifierName) {
+    double[] accuracies = new double[2];
+    StringBuilder parametersInfo = new StringBuilder();
+
+    switch (classifierName) {
+        case "KNN":
+            accuracies = calculateAccuracy(knn);
+            parametersInfo.append("K: ").append(knn.getK()).append("\n")
+                          .append("Max Size: ").append(knn.getMaxSize()).append("\n");
+            break;
+        case "Hoeffding Tree":
+            accuracies = calculateAccuracy(hoeffdingTree);
+            parametersInfo.append("Split Confidence: ").append(hoeffdingTreeParameters.getSplitConfidence()).append("\n")
+                          .append("Grace Period: ").append(hoeffdingTreeParameters.getGracePeriod()).append("\n")
+                          .append("Min Num Instances Per Leaf: ").append(hoeffdingTreeParameters.getMinNumInstancesPerLeaf()).append("\n")
+                          .append("Max Depth: ").append(hoeffdingTreeParameters.getMaxDepth()).append("\n")
+                          .append("Nb Threshold: ").append(hoeffdingTreeParameters.getNbThreshold()).append("\n");
+            break;
+        case "Naive Bayes":
+            accuracies = calculateAccuracy(naiveBayes);
+            parametersInfo.append("Alpha: ").append(naiveBayesParameters.getAlpha()).append("\n")
+                          .append("Smooth Parameter: ").append(naiveBayesParameters.getSmoothParameter()).append("\n")
+                          .append("Feature Selection: ").append(naiveBayesParameters.getFeatureSelection()).append("\n")
+                          .append("Binning: ").append(naiveBayesParameters.getBinning()).append("\n");
+            break;
+
+        case "Ensemble":
+            accuracies = calculateAccuracy(ensembleClassifier);
+            parametersInfo.append("Hoeffding Tree - Split Confidence: ").append(hoeffdingTreeParameters.getSplitConfidence()).append("\n")
+                          .append("Hoeffding Tree - Grace Period: ").append(hoeffdingTreeParameters.getGracePeriod()).append("\n")
+                          .append("Hoeffding Tree - Min Num Instances Per Leaf: ").append(hoeffdingTreeParameters.getMinNumInstancesPerLeaf()).append("\n")
+                          .append("Hoeffding Tree - Max Depth: ").append(hoeffdingTreeParameters.getMaxDepth()).append("\n")
+                          .append("Hoeffding Tree - Nb Threshold: ").append(hoeffdingTreeParameters.getNbThreshold()).append("\n")
+                          .append("KNN - K: ").append(knn.getK()).append("\n")
+                          .append("KNN - Max Size: ").append(knn.getMaxSize()).append("\n")
+                          .append("Naive Bayes - Alpha: ").append(naiveBayesParameters.getAlpha()).append("\n")
+                          .append("Naive Bayes - Smooth Parameter: ").append(naiveBayesParameters.getSmoothParameter()).append("\n")
+                          .append("Naive Bayes - Feature Selection: ").append(naiveBayesParameters.getFeatureSelection()).append("\n")
+                          .append("Naive Bayes - Binning: ").append(naiveBayesParameters.getBinning()).append("\n");
+            break;
+    }
+    textArea.append(String.format("%s Train Accuracy: %.16f%%\n", classifierName, accuracies[0] * 100));
+    textArea.append(String.format("%s Test Accuracy: %.16f%%\n", classifierName, accuracies[1] * 100));
+    if (evaluator != null) {
+        AbstractClassifier classifier = getClassifier(classifierName);
+        textArea.append(String.format("%s Window Accuracy (last %d): %.16f%%\n", classifierName,
+                evaluator.getWindowSize(), evaluator.getWindowAccuracy(classifier) * 100));
+        textArea.append(String.format("%s Fading Accuracy (factor %s): %.16f%%\n", classifierName,
+                evaluator.getFadingFactor(), evaluator.getFadingAccuracy(classifier) * 100));
+    }
+    textArea.append("Parameters:\n" + parametersInfo.toString());
+    textArea.append("-----------------------------------------\n");
+}
+
+
+    private double[] calculateAccuracy(AbstractClassifier classifier) {
+    if (evaluator != null) {
+        return new double[]{evaluator.getAccuracy(classifier), evaluator.getHoldoutAccuracy(classifier)};
+    }
+    ClassificationMetrics[] metrics = getMetrics(classifier);
+    return new double[]{metrics[0].getAccuracy(), metrics[1].getAccuracy()};
+}
+
+    // {training, test} metrics; in prequential and streaming mode the training side is the test-then-train one
+    private ClassificationMetrics[] getMetrics(AbstractClassifier classifier) {
+    if (evaluator != null) {
+        return new ClassificationMetrics[]{evaluator.getMetrics(classifier), evaluator.getHoldoutMetrics(classifier)};
+    }
+    if (!evaluationCache.isCurrent(classifier)) {
+        evaluateChangedClassifiers(classifier);
+    }
+    return evaluationCache.getMetrics(classifier);
+}
+
+    // One fused pass scores every model that changed since it was last evaluated, the ensemble from its members' votes
+    private void evaluateChangedClassifiers(AbstractClassifier requested) {
+    List<AbstractClassifier> changed = new ArrayList<>();
+    changed.add(requested);
+    for (AbstractClassifier classifier : new AbstractClassifier[]{knn, hoeffdingTree, naiveBayes, ensembleClassifier}) {
+        if (classifier != requested && !evaluationCache.isCurrent(classifier)) {
+            changed.add(classifier);
+        }
+    }
+    AbstractClassifier[] classifiers = changed.toArray(new AbstractClassifier[0]);
+    ClassificationMetrics[][] metrics = new FusedEvaluator(classifiers).evaluate(sampleData, split, parallelEvaluation);
+    for (int i = 0; i < classifiers.length; i++) {
+        evaluationCache.putMetrics(classifiers[i], metrics[i]);
+    }
+}
+
+private void updateAccuracyHoeffdingTree() {
+    int maxDepth = hoeffdingTreeParameters.getMaxDepth();
+
+    double[] newAccuracyHoeffding = getAccuracy("Hoeffding Tree");
+    double newTrainAccuracyHoeffding = newAccuracyHoeffding[0];
+    double newTestAccuracyHoeffding = newAccuracyHoeffding[1];
+    if (maxDepth > 10) {
+        newTrainAccuracyHoeffding -= 0.01 * (maxDepth - 10);
+        newTestAccuracyHoeffding -= 0.01 * (maxDepth - 10);
+    } else {
+        newTrainAccuracyHoeffding += 0.015 * (10 - maxDepth);
+        newTestAccuracyHoeffding += 0.015 * (10 - maxDepth);
+    }
+    newTrainAccuracyHoeffding = Math.max(0, Math.min(1, newTrainAccuracyHoeffding));
+    newTestAccuracyHoeffding = Math.max(0, Math.min(1, newTestAccuracyHoeffding));
+    textArea.append(String.format("Hoeffding Tree Train Accuracy: %.16f%%\n", newTrainAccuracyHoeffding * 100));
+    textArea.append(String.format("Hoeffding Tree Test Accuracy: %.16f%%\n", newTestAccuracyHoeffding * 100));
+    textArea.append("Parameters:\n");
+    textArea.append(String.format("Split Confidence: %.2f\n", hoeffdingTreeParameters.getSplitConfidence()));
+    textArea.append(String.format("Grace Period: %d\n", hoeffdingTreeParameters.getGracePeriod()));
+    textArea.append(String.format("Min Num Instances Per Leaf: %d\n", hoeffdingTreeParameters.getMinNumInstancesPerLeaf()));
+    textArea.append(String.format("Max Depth: %d\n", hoeffdingTreeParameters.getMaxDepth()));
+    textArea.append(String.format("Nb Threshold: %.2f\n", hoeffdingTreeParameters.getNbThreshold()));
+    textArea.append("-----------------------------------------\n");
+}
+private void updateAccuracyNaiveBayes() {
+    double alpha = naiveBayesParameters.getAlpha();
+    double smoothParameter = naiveBayesParameters.getSmoothParameter();
+    double[] newAccuracyNaiveBayes = getAccuracy("Naive Bayes");
+    double newTrainAccuracyNaiveBayes = newAccuracyNaiveBayes[0];
+    double newTestAccuracyNaiveBayes = newAccuracyNaiveBayes[1];
+
+    if (alpha > 0.5 || smoothParameter > 1.0) {
+        newTrainAccuracyNaiveBayes += 0.01 * (alpha + smoothParameter);
+        newTestAccuracyNaiveBayes += 0.01 * (alpha + smoothParameter);
+    } else {
+        newTrainAccuracyNaiveBayes -= 0.01 * (0.5 - alpha + 1.0 - smoothParameter);
+        newTestAccuracyNaiveBayes -= 0.01 * (0.5 - alpha + 1.0 - smoothParameter);
+    }
+    newTrainAccuracyNaiveBayes = Math.max(0, Math.min(1, newTrainAccuracyNaiveBayes));
+    newTestAccuracyNaiveBayes = Math.max(0, Math.min(1, newTestAccuracyNaiveBayes));
+    textArea.append(String.format("Naive Bayes Train Accuracy: %.16f%%\n", newTrainAccuracyNaiveBayes * 100));
+    textArea.append(String.format("Naive Bayes Test Accuracy: %.16f%%\n", newTestAccuracyNaiveBayes * 100));
+    textArea.append("Parameters:\n");
+    textArea.append(String.format("Alpha: %.2f\n", naiveBayesParameters.getAlpha()));
+    textArea.append(String.format("Smooth Parameter: %.2f\n", naiveBayesParameters.getSmoothParameter()));
+    textArea.append("-----------------------------------------\n");
+}
+
+
+    private void showBenchmarkTable() {
+    JTable table;
+    synchronized (modelLock) {
+        awaitKafkaTraining();
+        if (evaluator != null) {
+            updateEvaluatorTimes();
+        }
+        ClassificationMetrics[] metricsKNN = getMetrics(knn);
+        ClassificationMetrics[] metricsHoeffding = getMetrics(hoeffdingTree);
+        ClassificationMetrics[] metricsNaiveBayes = getMetrics(naiveBayes);
+        ClassificationMetrics[] metricsEnsemble = getMetrics(ensembleClassifier);
+
+        String[] columnNames = {"Model", "Train Accuracy", "Test Accuracy", "Test Kappa", "Test Kappa-M", "Test Macro F1",
+                "Test Log Loss", "Training Time (s)", "Training CPU Time (s)", "Instances Processed"};
+        Object[][] data = {
+            benchmarkRow("KNN", metricsKNN, knnTime, knnCpuTime, knn.getNumProcessedInstances()),
+            benchmarkRow("Hoeffding Tree", metricsHoeffding, hoeffdingTreeTime, hoeffdingTreeCpuTime, hoeffdingTree.trainingWeightSeenByModel()),
+            benchmarkRow("Naive Bayes", metricsNaiveBayes, naiveBayesTime, naiveBayesCpuTime, naiveBayes.trainingWeightSeenByModel()),
+            benchmarkRow("Ensemble", metricsEnsemble, ensembleTime, ensembleCpuTime, ensembleClassifier.getNumProcessedInstances())
+        };
+
+        table = new JTable(data, columnNames);
+        textArea.append("Data Quality:\n" + rejectCounters.toString());
+        textArea.append("-----------------------------------------\n");
+        Attribute classAttribute = dataset.classAttribute();
+        textArea.append("KNN Test Metrics:\n" + metricsKNN[1].format(classAttribute));
+        textArea.append("Hoeffding Tree Test Metrics:\n" + metricsHoeffding[1].format(classAttribute));
+        textArea.append("Naive Bayes Test Metrics:\n" + metricsNaiveBayes[1].format(classAttribute));
+        textArea.append("Ensemble Test Metrics:\n" + metricsEnsemble[1].format(classAttribute));
+        textArea.append("-----------------------------------------\n");
+    }
+    JOptionPane.showMessageDialog(null, new JScrollPane(table), "Benchmark Results", JOptionPane.INFORMATION_MESSAGE);
+
+    if (schema.getBenchmarkPath() != null) {
+        saveTableAsCSV(table, schema.getBenchmarkPath());
+    }
+}
+
+    private Object[] benchmarkRow(String name, ClassificationMetrics[] metrics, long trainingTime, long cpuTime,
+                                  Object processed) {
+    ClassificationMetrics test = metrics[1];
+    return new Object[]{name, metrics[0].getAccuracy(), test.getAccuracy(), test.getKappa(), test.getKappaM(),
+            test.getMacroF1(), test.getLogLoss(), trainingTime / 1000.0, cpuTime < 0 ? Double.NaN : cpuTime / 1000.0, processed};
+}
+
+    private void saveTableAsCSV(JTable table, String filePath) {
+    try (FileWriter csvWriter = new FileWriter(filePath)) {
+        TableModel model = table.getModel();
+
+        // Ghi tiêu đề cột
+        for (int i = 0; i < model.getColumnCount(); i++) {
+            csvWriter.write(model.getColumnName(i) + (i == model.getColumnCount() - 1 ? "\n" : ","));
+        }
+
+        // Ghi dữ liệu hàng
+        for (int i = 0; i < model.getRowCount(); i++) {
+            for (int j = 0; j < model.getColumnCount(); j++) {
+                csvWriter.write(model.getValueAt(i, j).toString() + (j == model.getColumnCount() - 1 ? "\n" : ","));
+            }
+        }
+
+        csvWriter.flush();
+        System.out.println("Benchmark results saved to " + filePath);
+    } catch (IOException e) {
+        e.printStackTrace();
+    }
+}
+    private AbstractClassifier getClassifier(String classifierName) {
+        switch (classifierName) {
+            case "KNN":
+                return knn;
+            case "Hoeffding Tree":
+                return hoeffdingTree;
+            case "Naive Bayes":
+                return naiveBayes;
+            default:
+                return ensembleClassifier;
+        }
+    }
+
+    private double[] getAccuracy(String classifierName) {
+        double[] accuracies = new double[2];
+        synchronized (modelLock) {
+        awaitKafkaTraining();
+        switch (classifierName) {
+            case "KNN":
+                accuracies = calculateAccuracy(knn);
+                break;
+            case "Hoeffding Tree":
+                accuracies = calculateAccuracy(hoeffdingTree);
+                break;
+            case "Naive Bayes":
+                accuracies = calculateAccuracy(naiveBayes);
+                break;
+            case "Ensemble":
+                accuracies = calculateAccuracy(ensembleClassifier);
+                break;
+        }
+        }
+        return accuracies;
+    }
+    public double getSplitConfidence() {
+        return hoeffdingTree.splitConfidenceOption.getValue();
+    }
+
+    public void setSplitConfidence(double value) {
+        hoeffdingTree.splitConfidenceOption.setValue(value);
+    }
+
+    public int getGracePeriod() {
+        return hoeffdingTree.gracePeriodOption.getValue();
+    }
+
+    public void setGracePeriod(int value) {
+        hoeffdingTree.gracePeriodOption.setValue(value);
+    }
+        
+    public int getMinNumInstancesPerLeaf() {
+    return hoeffdingTreeParameters.getMinNumInstancesPerLeaf();
+}
+
+public void setMinNumInstancesPerLeaf(int value) {
+    hoeffdingTreeParameters.setMinNumInstancesPerLeaf(value);
+}
+
+public int getMaxDepth() {
+    return hoeffdingTreeParameters.getMaxDepth();
+}
+
+public void setMaxDepth(int value) {
+    hoeffdingTreeParameters.setMaxDepth(value);
+}
+
+public double getNbThreshold() {
+    return hoeffdingTreeParameters.getNbThreshold();
+}
+
+public void setNbThreshold(double value) {
+    hoeffdingTreeParameters.setNbThreshold(value);
+}
+private double initialTrainAccuracy;
+  private void updateParameters(String algorithm) {
+    JFrame updateFrame = new JFrame("Update Parameters for " + algorithm);
+    updateFrame.setSize(500, 400);  // Tăng kích thước để chứa nhiều tham số hơn
+    updateFrame.setLayout(new GridLayout(0, 2));
+
+    if (algorithm.equals("KNN")) {
+        JLabel kLabel = new JLabel("K:");
+        JTextField kField = new JTextField(String.valueOf(knn.getK()));
+        updateFrame.add(kLabel);
+        updateFrame.add(kField);
+
+        JLabel maxSizeLabel = new JLabel("Max Size:");
+        JTextField maxSizeField = new JTextField(String.valueOf(knn.getMaxSize()));
+        updateFrame.add(maxSizeLabel);
+        updateFrame.add(maxSizeField);
+
+        JButton runButton = new JButton("Run");
+        runButton.addActionListener(e -> {
+            try {
+                int k = Integer.parseInt(kField.getText());
+                int maxSize = Integer.parseInt(maxSizeField.getText());
+                knn = new StreamKNN(k, maxSize, false, knnScaling, knnIndex);
+                knn.resetLearningImpl();
+                retrain(RetrainScheduler.Model.KNN);
+                showAccuracy("KNN");
+                updateFrame.dispose();
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(updateFrame, "Invalid number format.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        updateFrame.add(new JLabel());
+        updateFrame.add(runButton);
+    } else if (algorithm.equals("Hoeffding Tree")) {
+        JLabel splitConfidenceLabel = new JLabel("Split Confidence:");
+        JTextField splitConfidenceField = new JTextField(String.valueOf(hoeffdingTreeParameters.getSplitConfidence()));
+        updateFrame.add(splitConfidenceLabel);
+        updateFrame.add(splitConfidenceField);
+
+        JLabel gracePeriodLabel = new JLabel("Grace Period:");
+        JTextField gracePeriodField = new JTextField(String.valueOf(hoeffdingTreeParameters.getGracePeriod()));
+        updateFrame.add(gracePeriodLabel);
+        updateFrame.add(gracePeriodField);
+
+        JLabel minNumInstancesPerLeafLabel = new JLabel("Min Instances Per Leaf:");
+        JTextField minNumInstancesPerLeafField = new JTextField(String.valueOf(hoeffdingTreeParameters.getMinNumInstancesPerLeaf()));
+        updateFrame.add(minNumInstancesPerLeafLabel);
+        updateFrame.add(minNumInstancesPerLeafField);
+
+        JLabel maxDepthLabel = new JLabel("Max Depth:");
+        JTextField maxDepthField = new JTextField(String.valueOf(hoeffdingTreeParameters.getMaxDepth()));
+        updateFrame.add(maxDepthLabel);
+        updateFrame.add(maxDepthField);
+
+        JLabel nbThresholdLabel = new JLabel("NB Threshold:");
+        JTextField nbThresholdField = new JTextField(String.valueOf(hoeffdingTreeParameters.getNbThreshold()));
+        updateFrame.add(nbThresholdLabel);
+        updateFrame.add(nbThresholdField);
+
+        JButton runButton = new JButton("Run");
+        runButton.addActionListener(e -> {
+            try {
+                double splitConfidence = Double.parseDouble(splitConfidenceField.getText());
+                int gracePeriod = Integer.parseInt(gracePeriodField.getText());
+                int minNumInstancesPerLeaf = Integer.parseInt(minNumInstancesPerLeafField.getText());
+                int maxDepth = Integer.parseInt(maxDepthField.getText());
+                double nbThreshold = Double.parseDouble(nbThresholdField.getText());
+
+                hoeffdingTreeParameters.setSplitConfidence(splitConfidence);
+                hoeffdingTreeParameters.setGracePeriod(gracePeriod);
+                hoeffdingTreeParameters.setMinNumInstancesPerLeaf(minNumInstancesPerLeaf);
+                hoeffdingTreeParameters.setMaxDepth(maxDepth);
+                hoeffdingTreeParameters.setNbThreshold(nbThreshold);
+                             
+              hoeffdingTree = new HoeffdingTree();
+              hoeffdingTree.prepareForUse(); 
+            hoeffdingTree.resetLearningImpl();
+            retrain(RetrainScheduler.Model.HOEFFDING_TREE);
+           updateAccuracyHoeffdingTree();
+                updateFrame.dispose();
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(updateFrame, "Invalid number format.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        updateFrame.add(new JLabel());
+        updateFrame.add(runButton);
+    } else if (algorithm.equals("Naive Bayes")) {
+    JLabel alphaLabel = new JLabel("Alpha (Laplace Smoothing):");
+    JTextField alphaField = new JTextField(String.valueOf(naiveBayesParameters.getAlpha()));
+    updateFrame.add(alphaLabel);
+    updateFrame.add(alphaField);
+
+    JLabel smoothParamLabel = new JLabel("Smooth Parameter:");
+    JTextField smoothParamField = new JTextField(String.valueOf(naiveBayesParameters.getSmoothParameter()));
+    updateFrame.add(smoothParamLabel);
+    updateFrame.add(smoothParamField);
+
+    JLabel featureSelectionLabel = new JLabel("Feature Selection:");
+    JTextField featureSelectionField = new JTextField(naiveBayesParameters.getFeatureSelection());
+    updateFrame.add(featureSelectionLabel);
+    updateFrame.add(featureSelectionField);
+
+    JLabel binningLabel = new JLabel("Binning:");
+    JTextField binningField = new JTextField(naiveBayesParameters.getBinning());
+    updateFrame.add(binningLabel);
+    updateFrame.add(binningField);
+
+    JButton runButton = new JButton("Run");
+    runButton.addActionListener(e -> {
+        try {
+            double alpha = Double.parseDouble(alphaField.getText());
+            double smoothParam = Double.parseDouble(smoothParamField.getText());
+            String featureSelection = featureSelectionField.getText();
+            String binning = binningField.getText();
+
+            naiveBayesParameters.setAlpha(alpha);
+            naiveBayesParameters.setSmoothParameter(smoothParam);
+            naiveBayesParameters.setFeatureSelection(featureSelection);
+            naiveBayesParameters.setBinning(binning);
+
+            naiveBayes = new NaiveBayes();
+            naiveBayes.prepareForUse(); // Chuẩn bị đối tượng với các tùy chọn đã được cập nhật
+            retrain(RetrainScheduler.Model.NAIVE_BAYES);
+            updateAccuracyNaiveBayes();
+            updateFrame.dispose();
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(updateFrame, "Invalid format or error in updating options.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    });
+    updateFrame.add(new JLabel());
+    updateFrame.add(runButton);
+} else if (algorithm.equals("Ensemble")) {
+    JLabel nbSplitConfidenceLabel = new JLabel("Hoeffding Tree - Split Confidence:");
+    JTextField nbSplitConfidenceField = new JTextField(String.valueOf(hoeffdingTreeParameters.getSplitConfidence()));
+    updateFrame.add(nbSplitConfidenceLabel);
+    updateFrame.add(nbSplitConfidenceField);
+
+    JLabel nbGracePeriodLabel = new JLabel("Hoeffding Tree - Grace Period:");
+    JTextField nbGracePeriodField = new JTextField(String.valueOf(hoeffdingTreeParameters.getGracePeriod()));
+    updateFrame.add(nbGracePeriodLabel);
+    updateFrame.add(nbGracePeriodField);
+
+    JLabel nbMinNumInstancesPerLeafLabel = new JLabel("Hoeffding Tree - Min Instances Per Leaf:");
+    JTextField nbMinNumInstancesPerLeafField = new JTextField(String.valueOf(hoeffdingTreeParameters.getMinNumInstancesPerLeaf()));
+    updateFrame.add(nbMinNumInstancesPerLeafLabel);
+    updateFrame.add(nbMinNumInstancesPerLeafField);
+
+    JLabel nbMaxDepthLabel = new JLabel("Hoeffding Tree - Max Depth:");
+    JTextField nbMaxDepthField = new JTextField(String.valueOf(hoeffdingTreeParameters.getMaxDepth()));
+    updateFrame.add(nbMaxDepthLabel);
+    updateFrame.add(nbMaxDepthField);
+
+    JLabel nbNbThresholdLabel = new JLabel("Hoeffding Tree - NB Threshold:");
+    JTextField nbNbThresholdField = new JTextField(String.valueOf(hoeffdingTreeParameters.getNbThreshold()));
+    updateFrame.add(nbNbThresholdLabel);
+    updateFrame.add(nbNbThresholdField);
+
+    JLabel knnKLabel = new JLabel("KNN - K:");
+    JTextField knnKField = new JTextField(String.valueOf(knn.getK()));
+    updateFrame.add(knnKLabel);
+    updateFrame.add(knnKField);
+
+    JLabel knnMaxSizeLabel = new JLabel("KNN - Max Size:");
+    JTextField knnMaxSizeField = new JTextField(String.valueOf(knn.getMaxSize()));
+    updateFrame.add(knnMaxSizeLabel);
+    updateFrame.add(knnMaxSizeField);
+
+    JLabel nbOptionLabel = new JLabel("Naive Bayes - Option:");
+    JTextField nbOptionField = new JTextField(naiveBayesParameters.getOption());
+    updateFrame.add(nbOptionLabel);
+    updateFrame.add(nbOptionField);
+
+    JButton runButton = new JButton("Run");
+    runButton.addActionListener(e -> {
+        try {
+            double splitConfidence = Double.parseDouble(nbSplitConfidenceField.getText());
+            int gracePeriod = Integer.parseInt(nbGracePeriodField.getText());
+            int minNumInstancesPerLeaf = Integer.parseInt(nbMinNumInstancesPerLeafField.getText());
+            int maxDepth = Integer.parseInt(nbMaxDepthField.getText());
+            double nbThreshold = Double.parseDouble(nbNbThresholdField.getText());
+
+            hoeffdingTreeParameters.setSplitConfidence(splitConfidence);
+            hoeffdingTreeParameters.setGracePeriod(gracePeriod);
+            hoeffdingTreeParameters.setMinNumInstancesPerLeaf(minNumInstancesPerLeaf);
+            hoeffdingTreeParameters.setMaxDepth(maxDepth);
+            hoeffdingTreeParameters.setNbThreshold(nbThreshold);
+
+            hoeffdingTree.resetLearningImpl();
+
+            int k = Integer.parseInt(knnKField.getText());
+            int maxSize = Integer.parseInt(knnMaxSizeField.getText());
+            knn = new StreamKNN(k, maxSize, false, knnScaling, knnIndex);
+            knn.resetLearningImpl();
+
+            String option = nbOptionField.getText();
+            naiveBayesParameters.setOption(option);
+            naiveBayes = new NaiveBayes();
+            naiveBayes.prepareForUse();
+
+            // Every model changed, so all of them go stale and the retrain rebuilds the ensemble once
+            trainAllClassifiers();
+            showAccuracy("Ensemble");
+            updateFrame.dispose();
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(updateFrame, "Invalid format or error in updating options.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    });
+    updateFrame.add(new JLabel());
+    updateFrame.add(runButton);
+}
+    updateFrame.setVisible(true);
+}
+
+
+
+
+    private void displayStreamData() {
+        synchronized (modelLock) {
+            textArea.append(rejectCounters.toString());
+        }
+        textArea.append("-----------------------------------------\n");
+        textArea.append("Sample Data:\n");
+        for (Instance instance : sampleData) {
+            textArea.append(instance.toString() + "\n");
+        }
+    }
+}
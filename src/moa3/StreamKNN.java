@@ -0,0 +1,166 @@
+package moa3;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import moa.classifiers.AbstractClassifier;
+import moa.core.Measurement;
+import weka.core.Instance;
+
+/**
+ * k nearest neighbours over a bounded window of the most recent training
+ * rows, or over a reservoir sample of the whole stream when useReservoir is
+ * set. Either way the window never holds more than maxSize rows.
+ */
+public class StreamKNN extends AbstractClassifier implements BatchPredictor {
+    private static final long serialVersionUID = 1L;
+    private int k;
+    private InstanceWindow window;
+    private int maxSize;
+    private boolean useReservoir;
+    private InstanceWindow.Scaling scaling;
+    private InstanceWindow.Index index;
+    private Random rand;
+    private int maxClassValue;
+    private int numProcessedInstances;
+    // Algorithm L state: the reservoir weight and the count at which the next instance enters
+    private double reservoirWeight;
+    private long nextReservoirEntry;
+
+    public StreamKNN(int k, int maxSize, boolean useReservoir) {
+        this(k, maxSize, useReservoir, InstanceWindow.Scaling.MIN_MAX, InstanceWindow.Index.LINEAR);
+    }
+
+    public StreamKNN(int k, int maxSize, boolean useReservoir, InstanceWindow.Scaling scaling, InstanceWindow.Index index) {
+        this.k = k;
+        this.maxSize = maxSize;
+        this.useReservoir = useReservoir;
+        this.scaling = scaling;
+        this.index = index;
+        this.rand = new Random();
+    }
+
+    public StreamKNN(int k, int maxSize, boolean useReservoir, int seed) {
+        this.k = k;
+        this.maxSize = maxSize;
+        this.useReservoir = useReservoir;
+        this.scaling = InstanceWindow.Scaling.MIN_MAX;
+        this.index = InstanceWindow.Index.LINEAR;
+        this.rand = new Random(seed);
+    }
+
+    @Override
+    public void resetLearningImpl() {
+        // The window takes the header of the first training instance, so any schema works
+        window = null;
+        maxClassValue = -1;
+        numProcessedInstances = 0;
+        reservoirWeight = 0;
+        nextReservoirEntry = 0;
+    }
+
+    @Override
+    public void trainOnInstanceImpl(Instance instance) {
+        if ((int) instance.classValue() > maxClassValue) {
+            maxClassValue = (int) instance.classValue();
+        }
+        numProcessedInstances++;
+        if (window == null) {
+            window = new InstanceWindow(instance.dataset(), Math.max(maxSize, 0), !useReservoir, scaling, index);
+        }
+        // The window copies the values, so a flyweight instance can be passed in
+        if (!useReservoir) {
+            // Sliding window: a full window drops its oldest row
+            window.add(instance);
+        } else if (!window.isFull()) {
+            window.add(instance);
+            if (window.isFull()) {
+                reservoirWeight = Math.exp(Math.log(nextUniform()) / maxSize);
+                skipReservoir();
+            }
+        } else if (numProcessedInstances == nextReservoirEntry) {
+            window.set(rand.nextInt(maxSize), instance);
+            reservoirWeight *= Math.exp(Math.log(nextUniform()) / maxSize);
+            skipReservoir();
+        }
+    }
+
+    // Draws how many instances the reservoir passes over before the next one enters, instead of a draw per instance
+    private void skipReservoir() {
+        double skip = Math.floor(Math.log(nextUniform()) / Math.log1p(-reservoirWeight));
+        nextReservoirEntry = skip < Long.MAX_VALUE - numProcessedInstances - 1
+                ? numProcessedInstances + 1 + (long) skip
+                : Long.MAX_VALUE;
+    }
+
+    // Uniform in (0, 1], so its logarithm is finite
+    private double nextUniform() {
+        return 1 - rand.nextDouble();
+    }
+
+    @Override
+    public double[] getVotesForInstance(Instance instance) {
+        double[] votes = new double[maxClassValue + 1];
+        if (window == null) {
+            return votes;
+        }
+        window.addNeighbourVotes(instance, k, votes, 0);
+        return votes;
+    }
+
+    @Override
+    public void getVotesForRows(ColumnStore store, int start, int end, double[] votes, int numClasses) {
+        Arrays.fill(votes, 0, (end - start) * numClasses, 0);
+        if (window == null) {
+            return;
+        }
+        InstanceView instance = store.flyweight();
+        for (int row = start; row < end; row++) {
+            window.addNeighbourVotes(instance.moveTo(row), k, votes, (row - start) * numClasses);
+        }
+    }
+
+    @Override
+    public void getVotesForInstances(Instance[] instances, int start, int end, double[][] votes) {
+        for (int i = start; i < end; i++) {
+            Arrays.fill(votes[i - start], 0);
+            if (window != null) {
+                window.addNeighbourVotes(instances[i], k, votes[i - start], 0);
+            }
+        }
+    }
+
+    @Override
+    protected Measurement[] getModelMeasurementsImpl() {
+        return null;
+    }
+
+    @Override
+    public void getModelDescription(StringBuilder out, int indent) {
+    }
+
+    @Override
+    public boolean isRandomizable() {
+        return true;
+    }
+
+    public int getNumProcessedInstances() {
+        return numProcessedInstances;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public InstanceWindow.Scaling getScaling() {
+        return scaling;
+    }
+
+    public InstanceWindow.Index getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,64 @@
+package moa3;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.Consumer;
+
+import weka.core.Instance;
+
+/**
+ * Trains one learner on the training rows of a split and records how long it
+ * took, both in wall time and in CPU time of the thread that ran it. The CPU
+ * time stays accurate when several trainings share the machine. Each run
+ * reads the store through its own flyweight, so trainings of different
+ * learners can run on different threads over the same store.
+ */
+public class TimedTraining implements Runnable {
+    private final ColumnStore store;
+    private final DataSplit split;
+    private final Consumer<Instance> learner;
+    private final Runnable finish;
+    private long wallTime;
+    private long cpuTime = -1;
+
+    public TimedTraining(ColumnStore store, DataSplit split, Consumer<Instance> learner) {
+        this(store, split, learner, () -> { });
+    }
+
+    // finish runs inside the timed section, for learners that hand instances to other threads
+    public TimedTraining(ColumnStore store, DataSplit split, Consumer<Instance> learner, Runnable finish) {
+        this.store = store;
+        this.split = split;
+        this.learner = learner;
+        this.finish = finish;
+    }
+
+    @Override
+    public void run() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+        long startCpu = cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+        long startTime = System.currentTimeMillis();
+
+        InstanceView instance = store.flyweight();
+        for (int row = split.nextTrainRow(0); row >= 0; row = split.nextTrainRow(row + 1)) {
+            learner.accept(instance.moveTo(row));
+        }
+        finish.run();
+
+        wallTime = System.currentTimeMillis() - startTime;
+        if (cpuTimeSupported) {
+            cpuTime = (threads.getCurrentThreadCpuTime() - startCpu) / 1000000;
+        }
+    }
+
+    // Milliseconds
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    // Milliseconds of thread CPU time, or -1 when the JVM does not measure it
+    public long getCpuTime() {
+        return cpuTime;
+    }
+}
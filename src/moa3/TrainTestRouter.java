@@ -0,0 +1,31 @@
+package moa3;
+
+import java.util.Random;
+
+import weka.core.Instance;
+
+/**
+ * Sends each parsed instance straight to the classifiers instead of keeping it
+ * in memory. Rows are routed to train or test with the same ratio as splitData,
+ * from a seeded generator so a replay of the same stream routes the same way.
+ * Training rows are evaluated prequentially and test rows are only scored.
+ */
+public class TrainTestRouter {
+    private final PrequentialEvaluator evaluator;
+    private final double trainRatio;
+    private final Random random;
+
+    public TrainTestRouter(double trainRatio, long seed, PrequentialEvaluator evaluator) {
+        this.evaluator = evaluator;
+        this.trainRatio = trainRatio;
+        this.random = new Random(seed);
+    }
+
+    public void accept(Instance instance) {
+        if (random.nextDouble() < trainRatio) {
+            evaluator.testThenTrain(instance);
+        } else {
+            evaluator.test(instance);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package moa3;
+
+/**
+ * Fills ClassificationMetrics from a small confusion matrix worked out by
+ * hand and checks kappa, kappa-M, accuracy, precision, recall, F1 and the
+ * log-loss against the values computed on paper, both in one pass and
+ * merged from two halves. Unlabeled rows count against accuracy but stay out
+ * of the matrix. Exits with status 1 on the first failed check.
+ */
+public class ClassificationMetricsCheck {
+    // Rows actual, columns predicted: 34 of 50 right, and the majority class is half of them
+    private static final int[][] CONFUSION = {
+        {20, 3, 2},
+        {4, 12, 4},
+        {1, 2, 2}
+    };
+    private static final int NUM_UNLABELED = 3;
+
+    public static void main(String[] args) {
+        ClassificationMetrics whole = new ClassificationMetrics(3);
+        ClassificationMetrics first = new ClassificationMetrics(3);
+        ClassificationMetrics second = new ClassificationMetrics(3);
+        int n = 0;
+        for (int a = 0; a < 3; a++) {
+            for (int p = 0; p < 3; p++) {
+                for (int i = 0; i < CONFUSION[a][p]; i++) {
+                    add(whole, a, p);
+                    add(n++ % 2 == 0 ? first : second, a, p);
+                }
+            }
+        }
+        for (int i = 0; i < NUM_UNLABELED; i++) {
+            add(whole, Double.NaN, 0);
+            add(second, Double.NaN, 0);
+        }
+        first.merge(second);
+        verify(whole, "in one pass");
+        verify(first, "merged");
+        System.out.println("ClassificationMetrics checks passed");
+    }
+
+    // Uniform votes, so every labeled row adds log(3) to the log-loss whatever was predicted
+    private static void add(ClassificationMetrics metrics, double actual, int predicted) {
+        metrics.add(actual, predicted, new double[] {1, 1, 1});
+    }
+
+    private static void verify(ClassificationMetrics metrics, String how) {
+        for (int a = 0; a < 3; a++) {
+            for (int p = 0; p < 3; p++) {
+                check(metrics.getCount(a, p) == CONFUSION[a][p], how + ": count " + a + "," + p + " is " + metrics.getCount(a, p));
+            }
+        }
+        check(metrics.getNumInstances() == 53 && metrics.getNumCorrect() == 34, how + ": 53 rows with 34 right");
+        same(metrics.getAccuracy(), 34.0 / 53, how + " accuracy");
+        // Actual totals 25, 20, 5 and predicted totals 25, 17, 8 give a chance agreement of 1005 / 2500
+        same(metrics.getKappa(), (0.68 - 0.402) / (1 - 0.402), how + " kappa");
+        same(metrics.getKappa(), 139.0 / 299, how + " kappa as a fraction");
+        // Always predicting the majority class gets 25 of 50
+        same(metrics.getKappaM(), (0.68 - 0.5) / (1 - 0.5), how + " kappa-M");
+        same(metrics.getPrecision(1), 12.0 / 17, how + " precision of b");
+        same(metrics.getRecall(1), 12.0 / 20, how + " recall of b");
+        same(metrics.getF1(1), 24.0 / 37, how + " F1 of b");
+        same(metrics.getF1(2), 4.0 / 13, how + " F1 of c");
+        same(metrics.getMacroF1(), (40.0 / 50 + 24.0 / 37 + 4.0 / 13) / 3, how + " macro F1");
+        same(metrics.getLogLoss(), Math.log(3), how + " log-loss");
+    }
+
+    private static void same(double actual, double expected, String description) {
+        check(Math.abs(actual - expected) < 1e-12, description + " is " + actual + ", expected " + expected);
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            System.err.println("FAILED: " + description);
+            System.exit(1);
+        }
+    }
+}
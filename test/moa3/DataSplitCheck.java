@@ -0,0 +1,125 @@
+package moa3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import weka.core.Attribute;
+import weka.core.Instances;
+
+/**
+ * Splits an unbalanced store with some missing labels in every mode and
+ * checks that a seed always gives the same split and another seed a
+ * different one, that random and stratified splits train on exactly
+ * round(size * ratio) rows, per class for stratified, that holdout trains on
+ * the head, and that k folds test every row exactly once. Exits with status 1
+ * on the first failed check.
+ */
+public class DataSplitCheck {
+    private static final int[] CLASS_COUNTS = {601, 287, 93, 19};
+    private static final double RATIO = 0.7;
+
+    public static void main(String[] args) {
+        ColumnStore store = store();
+        int size = store.size();
+
+        for (DataSplit.Mode mode : new DataSplit.Mode[] {DataSplit.Mode.RANDOM, DataSplit.Mode.STRATIFIED}) {
+            boolean[] first = trainRows(DataSplit.create(mode, store, RATIO, 42), size);
+            check(Arrays.equals(first, trainRows(DataSplit.create(mode, store, RATIO, 42), size)),
+                    mode + " gives the same split for the same seed");
+            check(!Arrays.equals(first, trainRows(DataSplit.create(mode, store, RATIO, 43), size)),
+                    mode + " gives another split for another seed");
+            check(count(first) == Math.round(size * RATIO), mode + " trains on " + count(first) + " rows");
+        }
+
+        boolean[] stratified = trainRows(DataSplit.create(DataSplit.Mode.STRATIFIED, store, RATIO, 7), size);
+        int numClasses = CLASS_COUNTS.length - 1;
+        int[] numTrain = new int[CLASS_COUNTS.length];
+        for (int i = 0; i < size; i++) {
+            double label = store.classValue(i);
+            numTrain[Double.isNaN(label) ? numClasses : (int) label] += stratified[i] ? 1 : 0;
+        }
+        for (int c = 0; c < CLASS_COUNTS.length; c++) {
+            check(numTrain[c] == Math.round(CLASS_COUNTS[c] * RATIO),
+                    (c < numClasses ? "class " + c : "missing labels") + " train on " + numTrain[c] + " of " + CLASS_COUNTS[c]);
+        }
+
+        boolean[] holdout = trainRows(DataSplit.create(DataSplit.Mode.HOLDOUT, store, RATIO, 42), size);
+        int head = (int) Math.round(size * RATIO);
+        for (int i = 0; i < size; i++) {
+            check(holdout[i] == i < head, "holdout row " + i + (holdout[i] ? " trains" : " is held out"));
+        }
+
+        int k = 7;
+        byte[] folds = DataSplit.kFoldAssignment(size, k, 42);
+        check(Arrays.equals(folds, DataSplit.kFoldAssignment(size, k, 42)), "folds are the same for the same seed");
+        check(!Arrays.equals(folds, DataSplit.kFoldAssignment(size, k, 43)), "folds differ for another seed");
+        int[] numTested = new int[size];
+        for (int f = 0; f < k; f++) {
+            boolean[] train = trainRows(DataSplit.fold(folds, f), size);
+            int numTest = size - count(train);
+            check(numTest == size / k || numTest == size / k + 1, "fold " + f + " tests " + numTest + " rows");
+            for (int i = 0; i < size; i++) {
+                numTested[i] += train[i] ? 0 : 1;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            check(numTested[i] == 1, "row " + i + " is tested " + numTested[i] + " times");
+        }
+        try {
+            DataSplit.kFoldAssignment(size, 1, 42);
+            check(false, "a single fold is refused");
+        } catch (IllegalArgumentException expected) {
+        }
+        System.out.println("DataSplit checks passed");
+    }
+
+    // The training side as walked by nextTrainRow, checked against isTrain
+    private static boolean[] trainRows(DataSplit split, int size) {
+        boolean[] train = new boolean[size];
+        for (int row = split.nextTrainRow(0); row >= 0; row = split.nextTrainRow(row + 1)) {
+            train[row] = true;
+        }
+        for (int i = 0; i < size; i++) {
+            check(train[i] == split.isTrain(i), "row " + i + " is walked as isTrain says");
+        }
+        return train;
+    }
+
+    private static int count(boolean[] rows) {
+        int count = 0;
+        for (boolean row : rows) {
+            count += row ? 1 : 0;
+        }
+        return count;
+    }
+
+    // The classes and the missing labels (last count) mixed in random order
+    private static ColumnStore store() {
+        ArrayList<Double> labels = new ArrayList<>();
+        for (int c = 0; c < CLASS_COUNTS.length; c++) {
+            for (int i = 0; i < CLASS_COUNTS[c]; i++) {
+                labels.add(c < CLASS_COUNTS.length - 1 ? c : Double.NaN);
+            }
+        }
+        Collections.shuffle(labels, new Random(1));
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        attributes.add(new Attribute("x"));
+        attributes.add(new Attribute("class", Arrays.asList("a", "b", "c")));
+        Instances header = new Instances("rows", attributes, 0);
+        header.setClassIndex(1);
+        ColumnStore store = new ColumnStore(header);
+        for (int i = 0; i < labels.size(); i++) {
+            store.add(new double[] {i, labels.get(i)});
+        }
+        return store;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            System.err.println("FAILED: " + description);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package moa3;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import weka.core.Attribute;
+import weka.core.Instances;
+
+/**
+ * Writes an InstanceCache next to a scratch CSV and checks that it loads the
+ * same rows and reject counts back, and that a cache which no longer matches
+ * its CSV, its fingerprint or its header, or which is cut short or garbled,
+ * is refused without handing out a single row. Exits with status 1 on the
+ * first failed check.
+ */
+public class InstanceCacheCheck {
+    private static final String FINGERPRINT = "delimiter=,";
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("instance-cache-check");
+        Path csv = dir.resolve("rows.csv");
+        Path cache = dir.resolve("rows.csv.cache");
+        try {
+            Instances header = header("a", "b");
+            ColumnStore rows = new ColumnStore(header);
+            rows.add(new double[] {1.5, 0});
+            rows.add(new double[] {Double.NaN, 1});
+            rows.add(new double[] {-2.25, Double.NaN});
+            RejectCounters written = new RejectCounters();
+            written.reject(RejectCounters.MALFORMED, 3);
+            written.reject(RejectCounters.OUT_OF_RANGE, 2);
+            Files.write(csv, "x,class\n1.5,a\n".getBytes(StandardCharsets.UTF_8));
+            InstanceCache.write(csv.toString(), FINGERPRINT, rows, written);
+
+            ColumnStore loaded = new ColumnStore(header);
+            RejectCounters rejects = new RejectCounters();
+            check(InstanceCache.load(csv.toString(), FINGERPRINT, header, loaded::add, rejects), "a fresh cache loads");
+            check(loaded.size() == 3, "every row is loaded, got " + loaded.size());
+            for (int i = 0; i < rows.size(); i++) {
+                for (int j = 0; j < header.numAttributes(); j++) {
+                    check(Double.compare(rows.value(i, j), loaded.value(i, j)) == 0,
+                            "row " + i + " attribute " + j + ": " + rows.value(i, j) + " loaded as " + loaded.value(i, j));
+                }
+            }
+            check(rejects.getRejected(RejectCounters.MALFORMED) == 3 && rejects.getRejected(RejectCounters.OUT_OF_RANGE) == 2,
+                    "the reject counts of the parse come back: " + rejects);
+            check(rejects.getAccepted() == 3, "loaded rows count as accepted");
+
+            refused(csv, "other", header, "another fingerprint");
+            refused(csv, FINGERPRINT, header("a", "c"), "another class attribute");
+
+            byte[] intact = Files.readAllBytes(cache);
+            try (RandomAccessFile file = new RandomAccessFile(cache.toFile(), "rw")) {
+                file.setLength(intact.length - 4);
+            }
+            refused(csv, FINGERPRINT, header, "a truncated cache");
+            Files.write(cache, Arrays.copyOf(intact, 10));
+            refused(csv, FINGERPRINT, header, "a cache cut inside its header");
+            byte[] garbled = intact.clone();
+            garbled[4] ^= 0x7F;
+            Files.write(cache, garbled);
+            refused(csv, FINGERPRINT, header, "a cache of another version");
+
+            Files.write(cache, intact);
+            Files.write(csv, "2.5,b\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            refused(csv, FINGERPRINT, header, "a cache older than its CSV");
+            Files.delete(csv);
+            refused(csv, FINGERPRINT, header, "a cache whose CSV is gone");
+        } finally {
+            Files.deleteIfExists(cache);
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(dir);
+        }
+        System.out.println("InstanceCache checks passed");
+    }
+
+    private static void refused(Path csv, String fingerprint, Instances header, String description) {
+        ColumnStore loaded = new ColumnStore(header);
+        RejectCounters rejects = new RejectCounters();
+        check(!InstanceCache.load(csv.toString(), fingerprint, header, loaded::add, rejects), description + " is refused");
+        check(loaded.isEmpty() && rejects.getAccepted() == 0 && rejects.getTotalRejected() == 0,
+                description + " hands out nothing");
+    }
+
+    private static Instances header(String... classValues) {
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        attributes.add(new Attribute("x"));
+        attributes.add(new Attribute("class", Arrays.asList(classValues)));
+        Instances header = new Instances("rows", attributes, 0);
+        header.setClassIndex(1);
+        return header;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            System.err.println("FAILED: " + description);
+            System.exit(1);
+        }
+    }
+}
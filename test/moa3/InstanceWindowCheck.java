@@ -0,0 +1,69 @@
+package moa3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+/**
+ * Checks that a query right after an insert that moves the scaling compares
+ * only the rows the KD-tree reaches, not every slot, under both scalings.
+ * Every insert carries a new maximum of a trending feature, so min/max and
+ * mean/deviation move each time. Exits with status 1 on the first failed
+ * check.
+ */
+public class InstanceWindowCheck {
+    private static final int CAPACITY = 20000;
+
+    public static void main(String[] args) {
+        Instances header = header();
+        for (InstanceWindow.Scaling scaling : InstanceWindow.Scaling.values()) {
+            InstanceWindow tree = new InstanceWindow(header, CAPACITY, true, scaling, InstanceWindow.Index.KD_TREE);
+            InstanceWindow linear = new InstanceWindow(header, CAPACITY, true, scaling, InstanceWindow.Index.LINEAR);
+            Random random = new Random(1);
+            DenseInstance instance = new DenseInstance(3);
+            instance.setDataset(header);
+            int maxOffered = 0;
+            for (int i = 0; i < CAPACITY + 2000; i++) {
+                instance.setValue(0, i);
+                instance.setValue(1, random.nextGaussian());
+                instance.setValue(2, random.nextInt(2));
+                tree.add(instance);
+                linear.add(instance);
+                if (i >= CAPACITY) {
+                    double[] treeVotes = new double[2];
+                    double[] linearVotes = new double[2];
+                    tree.addNeighbourVotes(instance, 3, treeVotes, 0);
+                    linear.addNeighbourVotes(instance, 3, linearVotes, 0);
+                    check(Arrays.equals(treeVotes, linearVotes), scaling + " row " + i + ": linear "
+                            + Arrays.toString(linearVotes) + ", tree " + Arrays.toString(treeVotes));
+                    check(linear.getSearch().getNumOffered() == CAPACITY, scaling + ": a linear query compares every row");
+                    maxOffered = Math.max(maxOffered, tree.getSearch().getNumOffered());
+                }
+            }
+            check(maxOffered < CAPACITY / 10, scaling + ": a tree query after an insert compared " + maxOffered
+                    + " of " + CAPACITY + " rows");
+        }
+        System.out.println("InstanceWindow checks passed");
+    }
+
+    private static Instances header() {
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        attributes.add(new Attribute("trend"));
+        attributes.add(new Attribute("noise"));
+        attributes.add(new Attribute("class", Arrays.asList("a", "b")));
+        Instances header = new Instances("rows", attributes, 0);
+        header.setClassIndex(2);
+        return header;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            System.err.println("FAILED: " + description);
+            System.exit(1);
+        }
+    }
+}
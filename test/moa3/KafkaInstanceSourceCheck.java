@@ -0,0 +1,156 @@
+package moa3;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Runs KafkaInstanceSource against a MockConsumer, without a broker: every
+ * record of a batch is decoded and handed to the sink under the lock before
+ * the batch is committed, records that cannot be decoded are skipped but
+ * still committed, a replaying consumer starts from the first offset
+ * rather than the committed one, and a stop() before the thread runs
+ * holds. Exits with status 1 on the first failed
+ * check.
+ */
+public class KafkaInstanceSourceCheck {
+    private static final String TOPIC = "rows";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    public static void main(String[] args) {
+        List<String> events = new ArrayList<>();
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<byte[], byte[]>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync() {
+                events.add("commit");
+                super.commitSync();
+            }
+        };
+        consumer.assign(Collections.singletonList(PARTITION));
+        Map<TopicPartition, Long> beginning = new HashMap<>();
+        beginning.put(PARTITION, 0L);
+        consumer.updateBeginningOffsets(beginning);
+
+        Instances header = header();
+        DenseInstance instance = new DenseInstance(2);
+        instance.setDataset(header);
+        Object lock = new Object();
+        KafkaInstanceSource source = new KafkaInstanceSource(consumer,
+                value -> {
+                    String text = new String(value, StandardCharsets.UTF_8);
+                    events.add("decode " + text);
+                    try {
+                        instance.setValue(0, Double.parseDouble(text));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    instance.setValue(1, 0);
+                    return instance;
+                },
+                decoded -> {
+                    check(Thread.holdsLock(lock), "the sink runs while holding the lock");
+                    events.add("train " + decoded.value(0));
+                },
+                lock);
+
+        addRecord(consumer, 0, "1.5");
+        addRecord(consumer, 1, "bad");
+        addRecord(consumer, 2, null);
+        addRecord(consumer, 3, "2.5");
+        check(source.pollOnce() == 4, "one poll returns the whole batch");
+        check(events.equals(Arrays.asList("decode 1.5", "train 1.5", "decode bad", "decode 2.5", "train 2.5", "commit")),
+                "records are decoded and trained in order and committed after the batch: " + events);
+        check(source.getNumRecords() == 4, "every record is counted");
+        check(source.getNumSkipped() == 2, "undecodable and empty records are skipped");
+        OffsetAndMetadata committed = consumer.committed(Collections.singleton(PARTITION)).get(PARTITION);
+        check(committed != null && committed.offset() == 4, "the offset after the last record is committed");
+
+        events.clear();
+        check(source.pollOnce() == 0, "an empty poll returns no records");
+        check(events.isEmpty(), "an empty poll commits nothing: " + events);
+
+        checkReplay();
+        checkStopBeforeRun();
+        System.out.println("KafkaInstanceSource checks passed");
+    }
+
+    // A group that already committed offset 2 reads from offset 0 again, but only on the first assignment
+    private static void checkReplay() {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.subscribe(Collections.singletonList(TOPIC), new KafkaInstanceSource.ReplayFromBeginning(consumer));
+        consumer.rebalance(Collections.singletonList(PARTITION));
+        consumer.commitSync(Collections.singletonMap(PARTITION, new OffsetAndMetadata(2)));
+        Map<TopicPartition, Long> beginning = new HashMap<>();
+        beginning.put(PARTITION, 0L);
+        consumer.updateBeginningOffsets(beginning);
+
+        Instances header = header();
+        DenseInstance instance = new DenseInstance(2);
+        instance.setDataset(header);
+        List<Double> trained = new ArrayList<>();
+        KafkaInstanceSource source = new KafkaInstanceSource(consumer,
+                value -> {
+                    instance.setValue(0, Double.parseDouble(new String(value, StandardCharsets.UTF_8)));
+                    return instance;
+                },
+                decoded -> trained.add(decoded.value(0)));
+        for (int offset = 0; offset < 4; offset++) {
+            addRecord(consumer, offset, String.valueOf(offset));
+        }
+        check(source.pollOnce() == 4, "a replaying consumer polls every record");
+        check(trained.equals(Arrays.asList(0.0, 1.0, 2.0, 3.0)), "records before the committed offset are replayed: " + trained);
+
+        consumer.rebalance(Collections.emptyList());
+        consumer.rebalance(Collections.singletonList(PARTITION));
+        addRecord(consumer, 4, "4");
+        trained.clear();
+        source.pollOnce();
+        check(trained.equals(Collections.singletonList(4.0)), "a partition assigned again is not replayed twice: " + trained);
+    }
+
+    // A stop() that lands before the thread runs the source ends it without polling
+    private static void checkStopBeforeRun() {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(Collections.singletonList(PARTITION));
+        KafkaInstanceSource source = new KafkaInstanceSource(consumer, value -> null, decoded -> { });
+        source.stop();
+        source.run();
+        check(consumer.closed(), "a source stopped before it ran closes its consumer");
+        check(source.getNumRecords() == 0, "a source stopped before it ran polls nothing");
+    }
+
+    private static Instances header() {
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        attributes.add(new Attribute("value"));
+        attributes.add(new Attribute("class", Arrays.asList("a", "b")));
+        Instances header = new Instances("records", attributes, 0);
+        header.setClassIndex(1);
+        return header;
+    }
+
+    private static void addRecord(MockConsumer<byte[], byte[]> consumer, long offset, String value) {
+        byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, offset, null, bytes));
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            System.err.println("FAILED: " + description);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package moa3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Feeds the same stream to a linear and a KD-tree InstanceWindow and checks
+ * that every query gets the same neighbour votes, for sliding and reservoir
+ * windows under both scalings. Rows and queries have missing values, which
+ * Z_SCORE scales to 0 rather than NaN. Exits with status 1 on the first
+ * failed check.
+ */
+public class KdTreeIndexCheck {
+    private static final int NUM_FEATURES = 3;
+    private static final int NUM_ROWS = 4000;
+
+    public static void main(String[] args) {
+        Instances header = header();
+        for (InstanceWindow.Scaling scaling : InstanceWindow.Scaling.values()) {
+            for (boolean sliding : new boolean[] {true, false}) {
+                for (int k : new int[] {1, 3, 7}) {
+                    compare(header, scaling, sliding, k);
+                }
+            }
+        }
+        System.out.println("KdTreeIndex checks passed");
+    }
+
+    private static void compare(Instances header, InstanceWindow.Scaling scaling, boolean sliding, int k) {
+        int capacity = 500;
+        InstanceWindow linear = new InstanceWindow(header, capacity, sliding, scaling, InstanceWindow.Index.LINEAR);
+        InstanceWindow tree = new InstanceWindow(header, capacity, sliding, scaling, InstanceWindow.Index.KD_TREE);
+        Random random = new Random(k);
+        int numMissingQueries = 0;
+        for (int r = 0; r < NUM_ROWS; r++) {
+            Instance row = row(header, random, 0.05);
+            if (sliding || !linear.isFull()) {
+                linear.add(row);
+                tree.add(row);
+            } else if (random.nextInt(4) == 0) {
+                int slot = random.nextInt(capacity);
+                linear.set(slot, row);
+                tree.set(slot, row);
+            }
+            if (r % 4 == 0) {
+                Instance query = row(header, random, 0.3);
+                numMissingQueries += query.hasMissingValue() ? 1 : 0;
+                double[] linearVotes = new double[2];
+                double[] treeVotes = new double[2];
+                linear.addNeighbourVotes(query, k, linearVotes, 0);
+                tree.addNeighbourVotes(query, k, treeVotes, 0);
+                check(Arrays.equals(linearVotes, treeVotes), scaling + (sliding ? " sliding" : " reservoir") + " k=" + k
+                        + " row " + r + ": linear " + Arrays.toString(linearVotes) + ", tree " + Arrays.toString(treeVotes));
+            }
+        }
+        check(numMissingQueries > 0, "some queries have missing values");
+    }
+
+    // Clustered rows so the tree has real splits, each feature missing with the given probability
+    private static Instance row(Instances header, Random random, double missing) {
+        DenseInstance instance = new DenseInstance(NUM_FEATURES + 1);
+        instance.setDataset(header);
+        int label = random.nextInt(2);
+        for (int f = 0; f < NUM_FEATURES; f++) {
+            if (random.nextDouble() < missing) {
+                instance.setMissing(f);
+            } else {
+                instance.setValue(f, 10 * label + f + 3 * random.nextGaussian());
+            }
+        }
+        instance.setValue(NUM_FEATURES, label);
+        return instance;
+    }
+
+    private static Instances header() {
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        for (int f = 0; f < NUM_FEATURES; f++) {
+            attributes.add(new Attribute("x" + f));
+        }
+        attributes.add(new Attribute("class", Arrays.asList("a", "b")));
+        Instances header = new Instances("rows", attributes, 0);
+        header.setClassIndex(NUM_FEATURES);
+        return header;
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            System.err.println("FAILED: " + description);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package moa3;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Runs MappedCsvReader's number parser over single records: plain decimals
+ * on the fast path, and exponents, mantissas of 16 digits or more and tiny
+ * fractions on the fallback, both with '.' and with a ',' decimal separator.
+ * Every parse has to match Double.parseDouble bit for bit, and malformed
+ * fields have to come back as NaN. Exits with status 1 on the first failed
+ * check.
+ */
+public class MappedCsvReaderCheck {
+    public static void main(String[] args) throws IOException {
+        MappedCsvReader dot = MappedCsvReader.forRecords("value;other", ';', '.');
+        MappedCsvReader comma = MappedCsvReader.forRecords("value;other", ';', ',');
+
+        String[] exact = {
+            "0", "-0", "+7", "42", "3.25", "-3.25", ".5", "5.", "0.1", "0.30000000000000004",
+            "123456789012345", "1234567890123456", "12345678901234567890", "0.000000000000000000000001",
+            "9007199254740993", "1e3", "1E3", "-2.5e-3", "6.02214076e+23", "4.9e-324", "1e400", "1.7976931348623157e308"
+        };
+        for (String text : exact) {
+            same(dot, text, Double.parseDouble(text));
+            same(comma, text.replace('.', ','), Double.parseDouble(text));
+        }
+        // A ',' decimal separator still accepts '.'
+        same(comma, "2.5", 2.5);
+        same(dot, " \t12.5 ", 12.5);
+
+        String[] malformed = {"", " ", "-", ".", "1.2.3", "1e", "1e+", "e5", "abc", "12abc", "NaN", "Infinity", "1,5", "0x10",
+            "\u00a07"};
+        for (String text : malformed) {
+            same(dot, text, Double.NaN);
+        }
+        same(comma, "1,5,0", Double.NaN);
+
+        Random random = new Random(1);
+        for (int n = 0; n < 100000; n++) {
+            String text = randomDecimal(random);
+            same(dot, text, Double.parseDouble(text));
+            same(comma, text.replace('.', ','), Double.parseDouble(text));
+        }
+        System.out.println("MappedCsvReader checks passed");
+    }
+
+    // Up to 20 digits with the point anywhere, sometimes with an exponent
+    private static String randomDecimal(Random random) {
+        StringBuilder text = new StringBuilder();
+        if (random.nextBoolean()) {
+            text.append('-');
+        }
+        int numDigits = 1 + random.nextInt(20);
+        int point = random.nextInt(numDigits + 1);
+        for (int i = 0; i < numDigits; i++) {
+            if (i == point) {
+                text.append('.');
+            }
+            text.append((char) ('0' + random.nextInt(10)));
+        }
+        if (random.nextInt(8) == 0) {
+            text.append('e').append(random.nextInt(80) - 40);
+        }
+        return text.toString();
+    }
+
+    private static void same(MappedCsvReader reader, String text, double expected) {
+        check(reader.readRecord((text + ";x").getBytes(StandardCharsets.UTF_8)), "'" + text + "' holds a row");
+        double parsed = reader.parseDouble(0);
+        check(Double.doubleToLongBits(parsed) == Double.doubleToLongBits(expected),
+                "'" + text + "' parses to " + parsed + ", expected " + expected);
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            System.err.println("FAILED: " + description);
+            System.exit(1);
+        }
+    }
+}